@@ -15,6 +15,7 @@ public abstract class Annotated implements Listable {
 
   protected List<Annotation> annotations;
   private Map<Object, Object> tags = Collections.emptyMap();
+  private boolean shared = false;
 
   /** Initialize this instance. */
   protected Annotated() {
@@ -36,6 +37,12 @@ public abstract class Annotated implements Listable {
     return listing;
   }
 
+  /**
+   * Compare this instance with another one of the same class by their rendered source text.
+   *
+   * <p>Immutable subclasses, like all types, override this method and {@link #hashCode()} with
+   * structural implementations that don't render source.
+   */
   @Override
   public boolean equals(Object obj) {
     if (this == obj) {
@@ -44,7 +51,7 @@ public abstract class Annotated implements Listable {
     if (obj == null || getClass() != obj.getClass()) {
       return false;
     }
-    return hashCode() == obj.hashCode();
+    return list().equals(((Annotated) obj).list());
   }
 
   public List<Annotation> getAnnotations() {
@@ -80,8 +87,16 @@ public abstract class Annotated implements Listable {
     return Optional.ofNullable(tags.get(key));
   }
 
+  /**
+   * Return the tags of this instance, lazily creating a mutable map.
+   *
+   * <p>The map isn't thread-safe. Instances returned by caches, like {@code Type.type(Class)},
+   * {@code Type.parse(CharSequence)}, {@code TypeTable} and {@code MirrorCache}, are shared between
+   * callers and threads: they are marked {@link #share() shared} before they are published and
+   * their tags are an unmodifiable map.
+   */
   public Map<Object, Object> getTags() {
-    if (tags == Collections.EMPTY_MAP) {
+    if (tags == Collections.EMPTY_MAP && !shared) {
       tags = new HashMap<>();
     }
     return tags;
@@ -97,10 +112,30 @@ public abstract class Annotated implements Listable {
     return !annotations.isEmpty();
   }
 
+  /** Return {@code true} if this instance is shared and its tags are unmodifiable. */
+  public boolean isShared() {
+    return shared;
+  }
+
   public boolean isTagged() {
     return tags != null && !tags.isEmpty();
   }
 
+  /**
+   * Mark this instance as shared, making its tags unmodifiable.
+   *
+   * <p>Subclasses override this method to share their components as well.
+   */
+  public void share() {
+    if (shared) {
+      return;
+    }
+    shared = true;
+    if (!tags.isEmpty()) {
+      tags = Collections.unmodifiableMap(new HashMap<>(tags));
+    }
+  }
+
   @Override
   public String toString() {
     String className = getClass().getSimpleName();
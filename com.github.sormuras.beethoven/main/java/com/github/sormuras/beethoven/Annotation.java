@@ -3,9 +3,11 @@ package com.github.sormuras.beethoven;
 import static java.util.Arrays.sort;
 import static java.util.Arrays.stream;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Array;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -28,6 +30,137 @@ import javax.lang.model.type.MirroredTypeException;
  */
 public class Annotation implements Listable {
 
+  /** Member accessor of an annotation type, bound to its name and default value. */
+  private static final class Member {
+
+    private static final MethodType TYPE =
+        MethodType.methodType(Object.class, java.lang.annotation.Annotation.class);
+
+    private final String name;
+    private final MethodHandle accessor;
+    private final Object defaultValue;
+    private final String description;
+
+    Member(Method method) throws IllegalAccessException {
+      this.name = method.getName();
+      this.accessor = MethodHandles.lookup().unreflect(method).asType(TYPE);
+      this.defaultValue = method.getDefaultValue();
+      this.description = method.toString();
+    }
+
+    Object value(java.lang.annotation.Annotation annotation) throws Throwable {
+      try {
+        return (Object) accessor.invokeExact(annotation);
+      } catch (MirroredTypeException exception) {
+        return Class.forName(exception.getTypeMirror().toString());
+      }
+    }
+  }
+
+  /** Members of each annotation type, sorted by name. */
+  private static final ClassValue<Member[]> MEMBERS =
+      new ClassValue<Member[]>() {
+        @Override
+        protected Member[] computeValue(Class<?> type) {
+          Method[] methods = type.getDeclaredMethods();
+          sort(methods, Comparator.comparing(Method::getName));
+          Member[] members = new Member[methods.length];
+          try {
+            for (int i = 0; i < methods.length; i++) {
+              members[i] = new Member(methods[i]);
+            }
+          } catch (IllegalAccessException exception) {
+            throw new IllegalStateException("Accessing members of " + type + " failed", exception);
+          }
+          return members;
+        }
+      };
+
+  /** Annotation value literal comparing structurally by its wrapped object. */
+  static final class Value implements Listable {
+
+    private final Object object;
+
+    Value(Object object) {
+      this.object = object;
+    }
+
+    @Override
+    public Listing apply(Listing listing) {
+      if (object instanceof Class) {
+        return listing.add(Name.cast(object)).add(".class");
+      }
+      if (object instanceof Enum) {
+        return listing.add(Name.cast(object));
+      }
+      if (object instanceof String) {
+        return listing.add(Listable.escape((String) object));
+      }
+      if (object instanceof Float) {
+        return listing.fmt(Locale.US, "%fF", object);
+      }
+      if (object instanceof Long) {
+        return listing.fmt(Locale.US, "%dL", object);
+      }
+      if (object instanceof Character) {
+        return listing.add("'").add(Listable.escape((char) object)).add("'");
+      }
+      if (object instanceof Listable) {
+        return listing.add((Listable) object);
+      }
+      return listing.add(Objects.toString(object));
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (obj == null || getClass() != obj.getClass()) {
+        return false;
+      }
+      Object other = ((Value) obj).object;
+      if (object instanceof Listable && other instanceof Listable) {
+        return Annotation.equals((Listable) object, (Listable) other);
+      }
+      return Objects.equals(object, other);
+    }
+
+    @Override
+    public int hashCode() {
+      if (object instanceof Listable) {
+        return Annotation.hashCode((Listable) object);
+      }
+      return Objects.hashCode(object);
+    }
+
+    @Override
+    public String toString() {
+      return "Value{" + object + "}";
+    }
+  }
+
+  /**
+   * Compare two listables structurally.
+   *
+   * <p>Lambda-based listables don't carry a model to compare, they are compared by their rendered
+   * source text.
+   */
+  static boolean equals(Listable listable, Listable other) {
+    if (listable.equals(other)) {
+      return true;
+    }
+    if (listable.getClass().isSynthetic() && other.getClass().isSynthetic()) {
+      return listable.list().equals(other.list());
+    }
+    return false;
+  }
+
+  /** Hash code consistent with {@link #equals(Listable, Listable)}. */
+  static int hashCode(Listable listable) {
+    return listable.getClass().isSynthetic() ? 0 : listable.hashCode();
+  }
+
   /**
    * Create new {@link Annotation} instance by reflecting on the annotation found on given annotated
    * element calling {@link AnnotatedElement#getAnnotation(Class)}.
@@ -50,44 +183,34 @@ public class Annotation implements Listable {
       java.lang.annotation.Annotation annotation, boolean includeDefaultValues) {
     Annotation result = annotation(annotation.annotationType());
     try {
-      Method[] methods = annotation.annotationType().getDeclaredMethods();
-      sort(methods, Comparator.comparing(Method::getName));
-      for (Method method : methods) {
-        Object value;
-        try {
-          value = method.invoke(annotation);
-        } catch (InvocationTargetException exception) {
-          try {
-            MirroredTypeException mte = (MirroredTypeException) exception.getCause();
-            value = Class.forName(mte.getTypeMirror().toString());
-          } catch (ClassNotFoundException classNotFoundException) {
-            throw new AssertionError("Class not found?!", classNotFoundException);
-          }
-        }
+      for (Member member : MEMBERS.get(annotation.annotationType())) {
+        Object value = member.value(annotation);
         if (value == null) {
-          throw new IllegalStateException("Null value reported by " + method);
+          throw new IllegalStateException("Null value reported by " + member.description);
         }
         if (!includeDefaultValues) {
-          if (Objects.deepEquals(value, method.getDefaultValue())) {
+          if (Objects.deepEquals(value, member.defaultValue)) {
             continue;
           }
         }
         if (value.getClass().isArray()) {
           for (int i = 0; i < Array.getLength(value); i++) {
-            result.addObject(method.getName(), Array.get(value, i));
+            result.addObject(member.name, Array.get(value, i));
           }
           continue;
         }
         if (value instanceof java.lang.annotation.Annotation) {
           java.lang.annotation.Annotation casted = (java.lang.annotation.Annotation) value;
-          result.addMember(method.getName(), annotation(casted, includeDefaultValues));
+          result.addMember(member.name, annotation(casted, includeDefaultValues));
           continue;
         }
-        result.addObject(method.getName(), value);
+        result.addObject(member.name, value);
       }
-    } catch (Exception exception) {
-      String message = "Reflecting " + annotation + " failed: " + exception;
-      throw new AssertionError(message, exception);
+    } catch (Error error) {
+      throw error;
+    } catch (Throwable throwable) {
+      String message = "Reflecting " + annotation + " failed: " + throwable;
+      throw new AssertionError(message, throwable);
     }
     return result;
   }
@@ -154,28 +277,7 @@ public class Annotation implements Listable {
 
   /** Convert an object to a representation usable as an annotation value literal. */
   public static Listable value(Object object) {
-    if (object instanceof Class) {
-      return listing -> listing.add(Name.cast(object)).add(".class");
-    }
-    if (object instanceof Enum) {
-      return listing -> listing.add(Name.cast(object));
-    }
-    if (object instanceof String) {
-      return listing -> listing.add(Listable.escape((String) object));
-    }
-    if (object instanceof Float) {
-      return listing -> listing.fmt(Locale.US, "%fF", object);
-    }
-    if (object instanceof Long) {
-      return listing -> listing.fmt(Locale.US, "%dL", object);
-    }
-    if (object instanceof Character) {
-      return listing -> listing.add("'").add(Listable.escape((char) object)).add("'");
-    }
-    if (object instanceof Listable) {
-      return listing -> listing.add((Listable) object);
-    }
-    return listing -> listing.add(Objects.toString(object));
+    return new Value(object);
   }
 
   /** Annotation array-aware value(s) appender. */
@@ -259,12 +361,38 @@ public class Annotation implements Listable {
     if (obj == null || getClass() != obj.getClass()) {
       return false;
     }
-    return hashCode() == obj.hashCode();
+    Annotation other = (Annotation) obj;
+    if (!name.equals(other.name) || members.size() != other.members.size()) {
+      return false;
+    }
+    for (Entry<String, List<Listable>> entry : members.entrySet()) {
+      List<Listable> values = entry.getValue();
+      List<Listable> otherValues = other.members.get(entry.getKey());
+      if (otherValues == null || values.size() != otherValues.size()) {
+        return false;
+      }
+      for (int i = 0; i < values.size(); i++) {
+        if (!equals(values.get(i), otherValues.get(i))) {
+          return false;
+        }
+      }
+    }
+    return true;
   }
 
+  /** Compute hash code over the type name and the members, without rendering any source. */
   @Override
   public int hashCode() {
-    return list().hashCode();
+    int result = name.hashCode();
+    for (Entry<String, List<Listable>> entry : members.entrySet()) {
+      int valuesHash = 1;
+      for (Listable value : entry.getValue()) {
+        valuesHash = 31 * valuesHash + hashCode(value);
+      }
+      // entries are summed up: member order doesn't matter, just like the map's equality
+      result += entry.getKey().hashCode() ^ valuesHash;
+    }
+    return result;
   }
 
   @Override
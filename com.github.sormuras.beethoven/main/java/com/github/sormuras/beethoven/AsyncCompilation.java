@@ -0,0 +1,265 @@
+package com.github.sormuras.beethoven;
+
+import static java.util.Collections.emptyList;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import javax.annotation.processing.Processor;
+import javax.tools.JavaFileObject;
+
+/**
+ * Compiles units asynchronously, at most {@code maxConcurrent} tasks at a time.
+ *
+ * <p>Each compile call returns a future right away. Calls beyond the concurrency limit are queued
+ * and started as running tasks complete. At most {@code maxPending} calls are queued, {@code 1024}
+ * unless specified otherwise, further calls return a future failed with a {@link
+ * RejectedExecutionException}. Cancelling a returned future aborts its compiler task at the next
+ * compiler event, or removes it from the queue if it hasn't started yet. Timeouts are implemented
+ * by cancelling a future after waiting for it. Each task is run by a {@link Compilation.Session}
+ * taken from a pool, a session whose task was aborted or that is returned after {@link #close()}
+ * is closed and not reused. Pooled sessions don't retain class bytes, their store is cleared
+ * nevertheless before they are reused.
+ */
+public class AsyncCompilation implements AutoCloseable {
+
+  /** Compile request waiting for or holding a permit. */
+  private final class Job<T> implements Runnable {
+
+    private final List<String> options;
+    private final List<Processor> processors;
+    private final List<JavaFileObject> units;
+    private final Function<CompilationResult, T> finisher;
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+
+    Job(
+        List<String> options,
+        List<Processor> processors,
+        List<JavaFileObject> units,
+        Function<CompilationResult, T> finisher) {
+      this.options = options;
+      this.processors = processors;
+      this.units = units;
+      this.finisher = finisher;
+    }
+
+    @Override
+    public void run() {
+      try {
+        if (future.isCancelled()) {
+          return;
+        }
+        Compilation.Session session = sessions.poll();
+        if (session == null) {
+          session = new Compilation.Session();
+        }
+        try {
+          CompilationResult result =
+              session.callCancellable(options, processors, units, future::isCancelled);
+          future.complete(finisher.apply(result));
+        } catch (Throwable throwable) {
+          future.completeExceptionally(throwable);
+        } finally {
+          if (future.isCancelled() || !pool(session)) {
+            session.close();
+          }
+        }
+      } finally {
+        release();
+      }
+    }
+  }
+
+  /** Return executor running each task on a new virtual thread, or on a daemon thread. */
+  private static ExecutorService defaultExecutor() {
+    try {
+      Object service = Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+      return (ExecutorService) service;
+    } catch (ReflectiveOperationException e) {
+      return Executors.newCachedThreadPool(
+          runnable -> {
+            Thread thread = new Thread(runnable, "beethoven-async-compilation");
+            thread.setDaemon(true);
+            return thread;
+          });
+    }
+  }
+
+  private static final int DEFAULT_MAX_PENDING = 1024;
+
+  private final Executor executor;
+  private final ExecutorService ownedExecutor;
+  private final int maxConcurrent;
+  private final int maxPending;
+  private final Queue<Job<?>> pending = new ArrayDeque<>();
+  private final ConcurrentLinkedQueue<Compilation.Session> sessions = new ConcurrentLinkedQueue<>();
+  private int running = 0;
+  private boolean closed = false;
+
+  /** Create async compilation running on virtual threads, if available, or daemon threads. */
+  public AsyncCompilation(int maxConcurrent) {
+    this(defaultExecutor(), maxConcurrent, DEFAULT_MAX_PENDING, true);
+  }
+
+  /** Create async compilation running at most {@code maxConcurrent} tasks on the executor. */
+  public AsyncCompilation(Executor executor, int maxConcurrent) {
+    this(executor, maxConcurrent, DEFAULT_MAX_PENDING);
+  }
+
+  /**
+   * Create async compilation running at most {@code maxConcurrent} tasks on the executor and
+   * queueing at most {@code maxPending} further calls.
+   */
+  public AsyncCompilation(Executor executor, int maxConcurrent, int maxPending) {
+    this(executor, maxConcurrent, maxPending, false);
+  }
+
+  private AsyncCompilation(Executor executor, int maxConcurrent, int maxPending, boolean owned) {
+    if (maxConcurrent <= 0) {
+      throw new IllegalArgumentException(
+          "maxConcurrent must be greater than 0, but is " + maxConcurrent);
+    }
+    if (maxPending < 0) {
+      throw new IllegalArgumentException("maxPending must not be negative, but is " + maxPending);
+    }
+    this.executor = executor;
+    this.ownedExecutor = owned ? (ExecutorService) executor : null;
+    this.maxConcurrent = maxConcurrent;
+    this.maxPending = maxPending;
+  }
+
+  /** Compile all units in a single task and complete with the result, failed or not. */
+  public CompletableFuture<CompilationResult> call(
+      List<String> options, List<Processor> processors, List<JavaFileObject> units) {
+    return submit(new Job<>(options, processors, units, Function.identity()));
+  }
+
+  /** Shut down the default executor, if used, and close all idle sessions. */
+  @Override
+  public void close() {
+    synchronized (this) {
+      closed = true;
+    }
+    if (ownedExecutor != null) {
+      ownedExecutor.shutdown();
+    }
+    for (Compilation.Session session; (session = sessions.poll()) != null; ) {
+      session.close();
+    }
+  }
+
+  /** Compile all units and complete with a loader defining all classes. */
+  public CompletableFuture<ClassLoader> compile(
+      ClassLoader parent, List<String> options, List<JavaFileObject> units) {
+    ClassLoader loader = parent != null ? parent : Compilation.class.getClassLoader();
+    Function<CompilationResult, ClassLoader> finisher =
+        result -> {
+          if (!result.isSuccess()) {
+            throw new RuntimeException("Compilation failed! " + result.getDiagnostics());
+          }
+          return new Compilation.SecureLoader(loader, result.getClasses()::get);
+        };
+    return submit(new Job<>(options, emptyList(), units, finisher));
+  }
+
+  public Executor getExecutor() {
+    return executor;
+  }
+
+  public int getMaxConcurrent() {
+    return maxConcurrent;
+  }
+
+  public int getMaxPending() {
+    return maxPending;
+  }
+
+  /** Return number of compile calls waiting for a running task to complete. */
+  public synchronized int getPending() {
+    return pending.size();
+  }
+
+  /** Return number of tasks currently running. */
+  public synchronized int getRunning() {
+    return running;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return String.format(
+        "AsyncCompilation [maxConcurrent=%d, maxPending=%d, running=%d, pending=%d]",
+        maxConcurrent, maxPending, running, pending.size());
+  }
+
+  /** Return the session to the pool, unless this instance is closed. */
+  private synchronized boolean pool(Compilation.Session session) {
+    if (closed) {
+      return false;
+    }
+    session.clearClassBytes();
+    sessions.offer(session);
+    return true;
+  }
+
+  /** Hand the permit of a completed or rejected job to the next pending job that is accepted. */
+  private void release() {
+    while (true) {
+      Job<?> next;
+      synchronized (this) {
+        next = pending.poll();
+        if (next == null) {
+          running--;
+          return;
+        }
+      }
+      if (execute(next)) {
+        return;
+      }
+    }
+  }
+
+  private <T> CompletableFuture<T> submit(Job<T> job) {
+    synchronized (this) {
+      if (running >= maxConcurrent) {
+        if (pending.size() >= maxPending) {
+          String message = "too many pending compile calls: " + pending.size();
+          job.future.completeExceptionally(new RejectedExecutionException(message));
+          return job.future;
+        }
+        pending.add(job);
+        job.future.whenComplete(
+            (result, throwable) -> {
+              if (job.future.isCancelled()) {
+                synchronized (this) {
+                  pending.remove(job);
+                }
+              }
+            });
+        return job.future;
+      }
+      running++;
+    }
+    if (!execute(job)) {
+      release();
+    }
+    return job.future;
+  }
+
+  /** Run the job on the executor or fail it, if the executor rejects it. */
+  private boolean execute(Job<?> job) {
+    try {
+      executor.execute(job);
+      return true;
+    } catch (RejectedExecutionException e) {
+      job.future.completeExceptionally(e);
+      return false;
+    }
+  }
+}
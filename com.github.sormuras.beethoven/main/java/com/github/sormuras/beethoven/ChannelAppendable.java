@@ -0,0 +1,158 @@
+package com.github.sormuras.beethoven;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Objects;
+
+/**
+ * UTF-8 encoding {@link Appendable} writing into a byte buffer that is drained to a channel.
+ *
+ * <p>Characters are encoded as they are appended, ASCII characters take a single-byte fast path.
+ * The buffer is drained to the channel whenever it fills up and on {@link #flush()}. Pass the same
+ * buffer to multiple instances in order to reuse it for rendering multiple units.
+ */
+public class ChannelAppendable implements Appendable, Flushable {
+
+  private final ByteBuffer buffer;
+  private final WritableByteChannel channel;
+  private char pendingHighSurrogate = 0;
+
+  public ChannelAppendable(WritableByteChannel channel) {
+    this(channel, ByteBuffer.allocate(8192));
+  }
+
+  public ChannelAppendable(WritableByteChannel channel, ByteBuffer buffer) {
+    if (buffer.capacity() < 4) {
+      throw new IllegalArgumentException("buffer capacity too small: " + buffer.capacity());
+    }
+    this.channel = Objects.requireNonNull(channel, "channel");
+    this.buffer = buffer;
+    buffer.clear();
+  }
+
+  @Override
+  public ChannelAppendable append(char character) throws IOException {
+    if (character < 0x80 && pendingHighSurrogate == 0) {
+      if (!buffer.hasRemaining()) {
+        drain();
+      }
+      buffer.put((byte) character);
+      return this;
+    }
+    encode(character);
+    return this;
+  }
+
+  @Override
+  public ChannelAppendable append(CharSequence sequence) throws IOException {
+    if (sequence == null) {
+      sequence = "null";
+    }
+    return append(sequence, 0, sequence.length());
+  }
+
+  @Override
+  public ChannelAppendable append(CharSequence sequence, int start, int end) throws IOException {
+    if (sequence == null) {
+      sequence = "null";
+    }
+    int index = start;
+    while (index < end) {
+      // fast path: copy ascii characters as long as there is room in the buffer
+      if (pendingHighSurrogate == 0) {
+        int limit = Math.min(end, index + buffer.remaining());
+        while (index < limit) {
+          char character = sequence.charAt(index);
+          if (character >= 0x80) {
+            break;
+          }
+          buffer.put((byte) character);
+          index++;
+        }
+        if (index == end) {
+          break;
+        }
+        if (!buffer.hasRemaining()) {
+          drain();
+          continue;
+        }
+      }
+      encode(sequence.charAt(index++));
+    }
+    return this;
+  }
+
+  /** Write all buffered bytes to the channel. */
+  public void drain() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  /** Write all buffered bytes to the channel, replacing a pending unpaired high surrogate. */
+  @Override
+  public void flush() throws IOException {
+    if (pendingHighSurrogate != 0) {
+      pendingHighSurrogate = 0;
+      if (!buffer.hasRemaining()) {
+        drain();
+      }
+      buffer.put((byte) '?');
+    }
+    drain();
+  }
+
+  public ByteBuffer getBuffer() {
+    return buffer;
+  }
+
+  public WritableByteChannel getChannel() {
+    return channel;
+  }
+
+  private void encode(char character) throws IOException {
+    if (buffer.remaining() < 4) {
+      drain();
+    }
+    if (pendingHighSurrogate != 0) {
+      char high = pendingHighSurrogate;
+      pendingHighSurrogate = 0;
+      if (Character.isLowSurrogate(character)) {
+        int codePoint = Character.toCodePoint(high, character);
+        buffer.put((byte) (0xF0 | (codePoint >> 18)));
+        buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+        buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+        buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+        return;
+      }
+      // malformed: unpaired high surrogate is replaced like the UTF-8 charset encoder does
+      buffer.put((byte) '?');
+      append(character);
+      return;
+    }
+    if (character < 0x80) {
+      buffer.put((byte) character);
+      return;
+    }
+    if (character < 0x800) {
+      buffer.put((byte) (0xC0 | (character >> 6)));
+      buffer.put((byte) (0x80 | (character & 0x3F)));
+      return;
+    }
+    if (Character.isHighSurrogate(character)) {
+      pendingHighSurrogate = character;
+      return;
+    }
+    if (Character.isLowSurrogate(character)) {
+      buffer.put((byte) '?');
+      return;
+    }
+    buffer.put((byte) (0xE0 | (character >> 12)));
+    buffer.put((byte) (0x80 | ((character >> 6) & 0x3F)));
+    buffer.put((byte) (0x80 | (character & 0x3F)));
+  }
+}
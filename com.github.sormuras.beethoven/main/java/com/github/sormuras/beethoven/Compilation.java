@@ -2,23 +2,56 @@ package com.github.sormuras.beethoven;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.io.UnsupportedEncodingException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.security.SecureClassLoader;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.annotation.processing.Processor;
+import javax.tools.Diagnostic;
 import javax.tools.DiagnosticCollector;
+import javax.tools.DiagnosticListener;
 import javax.tools.FileObject;
 import javax.tools.ForwardingJavaFileManager;
 import javax.tools.JavaCompiler;
@@ -78,6 +111,475 @@ public interface Compilation {
     }
   }
 
+  /**
+   * Defines hidden classes, if the runtime supports them.
+   *
+   * <p>Hidden classes were introduced in Java 15, the method is looked up reflectively.
+   */
+  final class HiddenClassDefiner {
+
+    private static final MethodHandle DEFINE_HIDDEN_CLASS = defineHiddenClassHandle();
+
+    /** Return handle of {@code (Lookup, byte[], boolean)Lookup} type, or {@code null}. */
+    private static MethodHandle defineHiddenClassHandle() {
+      try {
+        Class<?> option = Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+        Object noOptions = Array.newInstance(option, 0);
+        MethodType type =
+            MethodType.methodType(Lookup.class, byte[].class, boolean.class, noOptions.getClass());
+        MethodHandle handle =
+            MethodHandles.publicLookup().findVirtual(Lookup.class, "defineHiddenClass", type);
+        return MethodHandles.insertArguments(handle, 3, noOptions);
+      } catch (ReflectiveOperationException e) {
+        return null;
+      }
+    }
+
+    /** Define and initialize hidden class in the package of the given full-privilege lookup. */
+    public static Class<?> define(Lookup lookup, byte[] bytes) {
+      if (!isSupported()) {
+        throw new UnsupportedOperationException("hidden classes require Java 15 or later");
+      }
+      try {
+        Lookup hidden = (Lookup) DEFINE_HIDDEN_CLASS.invokeExact(lookup, bytes, true);
+        return hidden.lookupClass();
+      } catch (Error | RuntimeException e) {
+        throw e;
+      } catch (Throwable throwable) {
+        throw new IllegalStateException("defining hidden class failed", throwable);
+      }
+    }
+
+    public static boolean isSupported() {
+      return DEFINE_HIDDEN_CLASS != null;
+    }
+
+    private HiddenClassDefiner() {}
+  }
+
+  /**
+   * Reusable compiler session keeping the system compiler and its standard file manager warm.
+   *
+   * <p>The standard file manager caches the platform class index and opened class path archives.
+   * A session reuses it for all compile calls. Class bytes are returned per call and not retained
+   * by default: a session created with a positive {@code retainedClasses} limit also collects them
+   * in a single store shared by all calls, evicting the oldest ones beyond the limit. Calls are
+   * serialized, as file managers are not thread-safe.
+   */
+  class Session implements AutoCloseable {
+
+    /**
+     * Accumulates wall times between started and finished events per task event kind.
+     *
+     * <p>The {@code com.sun.source.util} API isn't part of the Java 8 platform API, the task
+     * listener is therefore registered reflectively. Phases aren't recorded, if the task doesn't
+     * support listeners. If a cancellation signal is given, it is polled on each event and the
+     * task is aborted by throwing a {@link CancellationException}.
+     */
+    private static final class PhaseRecorder implements InvocationHandler {
+
+      private final Map<String, Duration> phases = new LinkedHashMap<>();
+      private final Map<String, Deque<Long>> starts = new HashMap<>();
+      private final BooleanSupplier cancelled;
+      private Method getKind;
+
+      PhaseRecorder(BooleanSupplier cancelled) {
+        this.cancelled = cancelled;
+      }
+
+      @Override
+      public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+          case "started":
+            checkCancelled();
+            String kind = kind(args[0]);
+            phases.putIfAbsent(kind, Duration.ZERO);
+            starts.computeIfAbsent(kind, key -> new ArrayDeque<>()).push(System.nanoTime());
+            return null;
+          case "finished":
+            checkCancelled();
+            long now = System.nanoTime();
+            Deque<Long> stack = starts.get(kind(args[0]));
+            if (stack != null && !stack.isEmpty()) {
+              phases.merge(kind(args[0]), Duration.ofNanos(now - stack.pop()), Duration::plus);
+            }
+            return null;
+          case "equals":
+            return proxy == args[0];
+          case "hashCode":
+            return System.identityHashCode(proxy);
+          case "toString":
+            return "PhaseRecorder" + phases;
+          default:
+            return null;
+        }
+      }
+
+      void checkCancelled() {
+        if (cancelled != null && cancelled.getAsBoolean()) {
+          throw new CancellationException("compilation cancelled");
+        }
+      }
+
+      private String kind(Object event) throws ReflectiveOperationException {
+        return String.valueOf(getKind.invoke(event));
+      }
+
+      void register(CompilationTask task) {
+        try {
+          ClassLoader loader = task.getClass().getClassLoader();
+          Class<?> javacTask = Class.forName("com.sun.source.util.JavacTask", false, loader);
+          if (!javacTask.isInstance(task)) {
+            return;
+          }
+          Class<?> listener = Class.forName("com.sun.source.util.TaskListener", false, loader);
+          Class<?> event = Class.forName("com.sun.source.util.TaskEvent", false, loader);
+          getKind = event.getMethod("getKind");
+          Object proxy = Proxy.newProxyInstance(loader, new Class<?>[] {listener}, this);
+          javacTask.getMethod("addTaskListener", listener).invoke(task, proxy);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+          // phases are not recorded
+        }
+      }
+    }
+
+    private final JavaCompiler compiler;
+    private final StandardJavaFileManager standardFileManager;
+    private final int retainedClasses;
+    private final Map<String, byte[]> classes;
+    private long calls = 0;
+    private long lastCallNanos = 0;
+    private long totalCallNanos = 0;
+
+    public Session() {
+      this(ToolProvider.getSystemJavaCompiler());
+    }
+
+    public Session(JavaCompiler compiler) {
+      this(compiler, 0);
+    }
+
+    /**
+     * Create session using the given compiler.
+     *
+     * @param retainedClasses maximum number of class bytes kept in the shared store, {@code 0} to
+     *     keep none
+     */
+    public Session(JavaCompiler compiler, int retainedClasses) {
+      if (retainedClasses < 0) {
+        throw new IllegalArgumentException(
+            "retainedClasses must not be negative, but is " + retainedClasses);
+      }
+      this.compiler =
+          Objects.requireNonNull(compiler, "No system java compiler available - JDK is required!");
+      this.standardFileManager =
+          compiler.getStandardFileManager(null, Locale.getDefault(), StandardCharsets.UTF_8);
+      this.retainedClasses = retainedClasses;
+      this.classes =
+          Collections.synchronizedMap(
+              new LinkedHashMap<String, byte[]>() {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                  return size() > retainedClasses;
+                }
+              });
+    }
+
+    @Override
+    public void close() {
+      try {
+        standardFileManager.close();
+      } catch (IOException e) {
+        throw new UncheckedIOException("closing file manager failed", e);
+      }
+    }
+
+    public ClassLoader compile(JavaFileObject... units) {
+      return compile(null, emptyList(), emptyList(), asList(units));
+    }
+
+    /** Compile all units in a single task and return a ClassLoader with all compiled units. */
+    public ClassLoader compile(
+        ClassLoader parent,
+        List<String> options,
+        List<Processor> processors,
+        List<JavaFileObject> units) {
+      Map<String, byte[]> bytes = compileClasses(options, processors, units);
+      ClassLoader loader = parent != null ? parent : Compilation.class.getClassLoader();
+      return new SecureLoader(loader, bytes::get);
+    }
+
+    /** Compile all units in a single task and return the class bytes keyed by class name. */
+    public Map<String, byte[]> compileClasses(
+        List<String> options, List<Processor> processors, List<JavaFileObject> units) {
+      DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+      Optional<Map<String, byte[]>> bytes = compileClasses(options, processors, units, diagnostics);
+      if (!bytes.isPresent()) {
+        throw new RuntimeException("Compilation failed! " + diagnostics.getDiagnostics());
+      }
+      return bytes.get();
+    }
+
+    /**
+     * Compile all units in a single task reporting diagnostics to the given listener.
+     *
+     * @return the class bytes keyed by class name, or an empty optional if compilation failed
+     */
+    public Optional<Map<String, byte[]>> compileClasses(
+        List<String> options,
+        List<Processor> processors,
+        List<JavaFileObject> units,
+        DiagnosticListener<? super JavaFileObject> listener) {
+      CompilationResult result = call(options, processors, units, listener);
+      return result.isSuccess() ? Optional.of(result.getClasses()) : Optional.empty();
+    }
+
+    /** Compile all units in a single task and return the result, failed or not. */
+    public CompilationResult call(
+        List<String> options, List<Processor> processors, List<JavaFileObject> units) {
+      return call(options, processors, units, null);
+    }
+
+    /**
+     * Compile all units in a single task and return the result, failed or not.
+     *
+     * @param listener additional listener diagnostics are reported to, may be {@code null}
+     */
+    public CompilationResult call(
+        List<String> options,
+        List<Processor> processors,
+        List<JavaFileObject> units,
+        DiagnosticListener<? super JavaFileObject> listener) {
+      return call(options, processors, units, listener, emptyMap());
+    }
+
+    /**
+     * Compile all units in a single task and return the result, failed or not.
+     *
+     * @param listener additional listener diagnostics are reported to, may be {@code null}
+     * @param classPath in-memory class bytes the units are compiled against, keyed by class name
+     */
+    public CompilationResult call(
+        List<String> options,
+        List<Processor> processors,
+        List<JavaFileObject> units,
+        DiagnosticListener<? super JavaFileObject> listener,
+        Map<String, byte[]> classPath) {
+      Manager manager = new Manager(standardFileManager, null, classPath, null);
+      return call(options, processors, units, listener, manager, false, null);
+    }
+
+    /**
+     * Compile all units in a single task, aborting it as soon as cancellation is signalled.
+     *
+     * @throws CancellationException if the task was aborted
+     */
+    CompilationResult callCancellable(
+        List<String> options,
+        List<Processor> processors,
+        List<JavaFileObject> units,
+        BooleanSupplier cancelled) {
+      Manager manager = new Manager(standardFileManager, null, emptyMap(), null);
+      return call(options, processors, units, null, manager, false, cancelled);
+    }
+
+    /**
+     * Parse, enter and attribute all units in a single task, without generating class files.
+     *
+     * <p>The compiler stops after flow analysis, the returned result holds the diagnostics and
+     * phase timings but no classes. It is successful, if no error was reported. Should the compiler
+     * task not support stopping early, the units are compiled and the class bytes discarded.
+     */
+    public CompilationResult check(
+        List<String> options, List<Processor> processors, List<JavaFileObject> units) {
+      Manager manager = new Manager(standardFileManager, null, emptyMap(), null);
+      return call(options, processors, units, null, manager, true, null);
+    }
+
+    /**
+     * Compile all units in a single task streaming class files into the given jar.
+     *
+     * <p>No class bytes are kept, neither by the returned result nor by this session. Entries are
+     * written in the order the compiler emits the class files, which is stable for the same units
+     * and options, and carry a constant timestamp. The jar stream is not closed. If compilation
+     * fails, the jar may contain a part of the classes and should be discarded.
+     */
+    public CompilationResult compileJar(
+        List<String> options,
+        List<Processor> processors,
+        List<JavaFileObject> units,
+        JarOutputStream jar) {
+      Objects.requireNonNull(jar, "jar");
+      Manager manager = new Manager(standardFileManager, null, emptyMap(), jar);
+      CompilationResult result = call(options, processors, units, null, manager, false, null);
+      if (!result.isSuccess()) {
+        throw new RuntimeException("Compilation failed! " + result.getDiagnostics());
+      }
+      return result;
+    }
+
+    private synchronized CompilationResult call(
+        List<String> options,
+        List<Processor> processors,
+        List<JavaFileObject> units,
+        DiagnosticListener<? super JavaFileObject> listener,
+        Manager manager,
+        boolean analyzeOnly,
+        BooleanSupplier cancelled) {
+      long start = System.nanoTime();
+      try {
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        DiagnosticListener<JavaFileObject> reporter = diagnostics;
+        if (listener != null) {
+          reporter =
+              diagnostic -> {
+                diagnostics.report(diagnostic);
+                listener.report(diagnostic);
+              };
+        }
+        CompilationTask task = compiler.getTask(null, manager, reporter, options, null, units);
+        if (!processors.isEmpty()) {
+          task.setProcessors(processors);
+        }
+        PhaseRecorder recorder = new PhaseRecorder(cancelled);
+        recorder.checkCancelled();
+        recorder.register(task);
+        boolean success;
+        try {
+          success = analyzeOnly ? analyze(task, diagnostics) : task.call();
+        } catch (RuntimeException e) {
+          if (cancelled != null && cancelled.getAsBoolean()) {
+            CancellationException cancellation = new CancellationException("compilation cancelled");
+            cancellation.initCause(e);
+            throw cancellation;
+          }
+          throw e;
+        }
+        Map<String, byte[]> bytes = new TreeMap<>();
+        Map<String, Integer> counts = new TreeMap<>();
+        Map<String, Long> sizes = new TreeMap<>();
+        Map<String, String> sources = new TreeMap<>();
+        if (success && !analyzeOnly) {
+          manager.map.forEach(
+              (name, object) -> {
+                byte[] classBytes = object.getBytes();
+                bytes.put(name, classBytes);
+                manager.sizes.put(name, (long) classBytes.length);
+              });
+          manager.siblings.forEach(
+              (name, sibling) -> {
+                String uri = sibling.toUri().toString();
+                sources.put(name, uri);
+                counts.merge(uri, 1, Integer::sum);
+                sizes.merge(uri, manager.sizes.get(name), Long::sum);
+              });
+          if (retainedClasses > 0) {
+            classes.putAll(bytes);
+          }
+        }
+        Duration duration = Duration.ofNanos(System.nanoTime() - start);
+        return new CompilationResult(
+            success,
+            bytes,
+            diagnostics.getDiagnostics(),
+            recorder.phases,
+            sources,
+            counts,
+            sizes,
+            duration);
+      } finally {
+        lastCallNanos = System.nanoTime() - start;
+        totalCallNanos += lastCallNanos;
+        calls++;
+      }
+    }
+
+    /** Run the task through attribution and flow analysis only, if supported. */
+    private static boolean analyze(
+        CompilationTask task, DiagnosticCollector<JavaFileObject> diagnostics) {
+      Method analyze;
+      try {
+        ClassLoader loader = task.getClass().getClassLoader();
+        Class<?> javacTask = Class.forName("com.sun.source.util.JavacTask", false, loader);
+        if (!javacTask.isInstance(task)) {
+          return task.call();
+        }
+        analyze = javacTask.getMethod("analyze");
+      } catch (ReflectiveOperationException | RuntimeException e) {
+        return task.call();
+      }
+      try {
+        analyze.invoke(task);
+      } catch (InvocationTargetException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException) {
+          throw new UncheckedIOException("analyzing units failed", (IOException) cause);
+        }
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw new IllegalStateException("analyzing units failed", cause);
+      } catch (IllegalAccessException e) {
+        throw new IllegalStateException("analyzing units failed", e);
+      }
+      return diagnostics
+          .getDiagnostics()
+          .stream()
+          .noneMatch(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR);
+    }
+
+    /** Release the class bytes retained by this session. */
+    public void clearClassBytes() {
+      classes.clear();
+    }
+
+    /** Return snapshot of the class bytes retained by this session, keyed by name. */
+    public Map<String, byte[]> getClassBytes() {
+      synchronized (classes) {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(classes));
+      }
+    }
+
+    public synchronized long getCalls() {
+      return calls;
+    }
+
+    public JavaCompiler getCompiler() {
+      return compiler;
+    }
+
+    /** Return duration of the last compile call. */
+    public synchronized Duration getLastCallDuration() {
+      return Duration.ofNanos(lastCallNanos);
+    }
+
+    /** Return maximum number of class bytes kept in the shared store. */
+    public int getRetainedClasses() {
+      return retainedClasses;
+    }
+
+    public StandardJavaFileManager getStandardFileManager() {
+      return standardFileManager;
+    }
+
+    /** Return accumulated duration of all compile calls. */
+    public synchronized Duration getTotalCallDuration() {
+      return Duration.ofNanos(totalCallNanos);
+    }
+
+    @Override
+    public synchronized String toString() {
+      return String.format(
+          "Session [calls=%d, classes=%d, last=%s, total=%s]",
+          calls, classes.size(), getLastCallDuration(), getTotalCallDuration());
+    }
+  }
+
   class SourceFileObject extends SimpleJavaFileObject {
 
     private ByteArrayOutputStream stream;
@@ -107,12 +609,102 @@ public interface Compilation {
 
   class Manager extends ForwardingJavaFileManager<StandardJavaFileManager> {
 
+    /** Readable class file object on the in-memory class path. */
+    private static final class ClassPathFileObject extends SimpleJavaFileObject {
+
+      private final String name;
+      private final byte[] bytes;
+
+      ClassPathFileObject(String name, byte[] bytes) {
+        super(URI.create("beethoven:///" + name.replace('.', '/') + ".class"), Kind.CLASS);
+        this.name = name;
+        this.bytes = bytes;
+      }
+
+      @Override
+      public InputStream openInputStream() {
+        return new ByteArrayInputStream(bytes);
+      }
+    }
+
+    /** Class file object writing its bytes as an entry of the jar. */
+    private final class JarEntryFileObject extends SimpleJavaFileObject {
+
+      private final String name;
+
+      JarEntryFileObject(String name) {
+        super(URI.create("beethoven:///" + name.replace('.', '/') + ".class"), Kind.CLASS);
+        this.name = name;
+      }
+
+      @Override
+      public OutputStream openOutputStream() throws IOException {
+        JarEntry entry = new JarEntry(name.replace('.', '/') + ".class");
+        entry.setTime(JAR_ENTRY_TIME);
+        jar.putNextEntry(entry);
+        return new FilterOutputStream(jar) {
+          private long size = 0;
+          private boolean closed = false;
+
+          @Override
+          public void write(int b) throws IOException {
+            jar.write(b);
+            size++;
+          }
+
+          @Override
+          public void write(byte[] b, int off, int len) throws IOException {
+            jar.write(b, off, len);
+            size += len;
+          }
+
+          @Override
+          public void close() throws IOException {
+            if (closed) {
+              return;
+            }
+            closed = true;
+            jar.closeEntry();
+            sizes.put(name, size);
+          }
+        };
+      }
+    }
+
+    /** Constant jar entry time, 1980-02-01T00:00 in the local time zone stored by zip entries. */
+    private static final long JAR_ENTRY_TIME =
+        LocalDateTime.of(1980, 2, 1, 0, 0)
+            .atZone(ZoneId.systemDefault())
+            .toInstant()
+            .toEpochMilli();
+
     private final Map<String, ByteArrayFileObject> map = new HashMap<>();
+    private final Map<String, FileObject> siblings = new HashMap<>();
+    private final Map<String, Long> sizes = new HashMap<>();
     private final ClassLoader parent;
+    private final Map<String, byte[]> classPath;
+    private final JarOutputStream jar;
 
     public Manager(StandardJavaFileManager standardManager, ClassLoader parent) {
+      this(standardManager, parent, emptyMap(), null);
+    }
+
+    /**
+     * Create manager listing in-memory classes on the class path and writing class files to a jar.
+     *
+     * @param classPath in-memory class bytes listed on the class path, keyed by class name
+     * @param jar stream class files are written to as entries, or {@code null} to keep them in
+     *     memory
+     */
+    public Manager(
+        StandardJavaFileManager standardManager,
+        ClassLoader parent,
+        Map<String, byte[]> classPath,
+        JarOutputStream jar) {
       super(standardManager);
       this.parent = parent != null ? parent : getClass().getClassLoader();
+      this.classPath = classPath;
+      this.jar = jar;
     }
 
     @Override
@@ -125,6 +717,12 @@ public interface Compilation {
         Location location, String name, Kind kind, FileObject sibling) {
       switch (kind) {
         case CLASS:
+          if (sibling != null) {
+            siblings.put(name, sibling);
+          }
+          if (jar != null) {
+            return new JarEntryFileObject(name);
+          }
           ByteArrayFileObject object = new ByteArrayFileObject(name, kind);
           map.put(name, object);
           return object;
@@ -135,27 +733,74 @@ public interface Compilation {
       }
     }
 
+    @Override
+    public String inferBinaryName(Location location, JavaFileObject file) {
+      if (file instanceof ClassPathFileObject) {
+        return ((ClassPathFileObject) file).name;
+      }
+      return super.inferBinaryName(location, file);
+    }
+
     @Override
     public boolean isSameFile(FileObject fileA, FileObject fileB) {
       return fileA.toUri().equals(fileB.toUri());
     }
+
+    @Override
+    public Iterable<JavaFileObject> list(
+        Location location, String packageName, Set<Kind> kinds, boolean recurse)
+        throws IOException {
+      Iterable<JavaFileObject> listed = super.list(location, packageName, kinds, recurse);
+      if (classPath.isEmpty()
+          || location != StandardLocation.CLASS_PATH
+          || !kinds.contains(Kind.CLASS)) {
+        return listed;
+      }
+      List<JavaFileObject> objects = new ArrayList<>();
+      listed.forEach(objects::add);
+      classPath.forEach(
+          (name, bytes) -> {
+            String namePackage = name.substring(0, Math.max(0, name.lastIndexOf('.')));
+            if (namePackage.equals(packageName)
+                || recurse && namePackage.startsWith(packageName + '.')) {
+              objects.add(new ClassPathFileObject(name, bytes));
+            }
+          });
+      return objects;
+    }
   }
 
-  class SecureLoader extends SecureClassLoader {
-    private final Map<String, ByteArrayFileObject> map;
+  /**
+   * Class loader defining classes from in-memory bytes.
+   *
+   * <p>Closing the loader releases its bytes, classes not loaded so far can't be found afterwards.
+   * Defined classes are unloaded together with the loader, once neither is reachable.
+   */
+  class SecureLoader extends SecureClassLoader implements Closeable {
+    private volatile Function<String, byte[]> classes;
 
     public SecureLoader(ClassLoader parent, Map<String, ByteArrayFileObject> map) {
+      this(parent, name -> map.containsKey(name) ? map.get(name).getBytes() : null);
+    }
+
+    /** Create loader defining classes from the bytes provided by the given function. */
+    public SecureLoader(ClassLoader parent, Function<String, byte[]> classes) {
       super(parent);
-      this.map = map;
+      this.classes = classes;
+    }
+
+    /** Release all bytes of classes not loaded so far. */
+    @Override
+    public void close() {
+      classes = name -> null;
     }
 
     @Override
     protected Class<?> findClass(String className) throws ClassNotFoundException {
-      ByteArrayFileObject object = map.get(className);
-      if (object == null) {
+      byte[] bytes = classes.apply(className);
+      if (bytes == null) {
         throw new ClassNotFoundException(className);
       }
-      byte[] bytes = object.getBytes();
       return super.defineClass(className, bytes, 0, bytes.length);
     }
   }
@@ -197,21 +842,76 @@ public interface Compilation {
       List<String> options,
       List<Processor> processors,
       List<JavaFileObject> units) {
-    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
-    Objects.requireNonNull(compiler, "No system java compiler available - JDK is required!");
-    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
-    StandardJavaFileManager standardFileManager =
-        compiler.getStandardFileManager(diagnostics, Locale.getDefault(), StandardCharsets.UTF_8);
-    Manager manager = new Manager(standardFileManager, parent);
-    CompilationTask task = compiler.getTask(null, manager, diagnostics, options, null, units);
-    if (!processors.isEmpty()) {
-      task.setProcessors(processors);
-    }
-    boolean success = task.call();
-    if (!success) {
-      throw new RuntimeException("Compilation failed! " + diagnostics.getDiagnostics());
-    }
-    return manager.getClassLoader(StandardLocation.CLASS_PATH);
+    try (Session session = new Session()) {
+      return session.compile(parent, options, processors, units);
+    }
+  }
+
+  /** Check all units using a short-lived session, see {@link Session#check(List, List, List)}. */
+  static CompilationResult check(JavaFileObject... units) {
+    return check(emptyList(), emptyList(), asList(units));
+  }
+
+  /** Check all units using a short-lived session, see {@link Session#check(List, List, List)}. */
+  static CompilationResult check(
+      List<String> options, List<Processor> processors, List<JavaFileObject> units) {
+    try (Session session = new Session()) {
+      return session.check(options, processors, units);
+    }
+  }
+
+  /**
+   * Define the compiled classes of a single top level class so that they can be unloaded as soon
+   * as they are unreachable, and return the top level class.
+   *
+   * <p>If a lookup is given, the runtime supports it and the top level class is the only class, it
+   * is defined as a hidden class in the package of the lookup class. Otherwise, all classes,
+   * including nested, inner and anonymous ones, are defined by {@link #defineBatch(ClassLoader,
+   * Map)}.
+   */
+  static Class<?> defineUnloadable(Lookup lookup, Map<String, byte[]> classes) {
+    String name = topLevelName(classes);
+    if (classes.size() == 1 && lookup != null && HiddenClassDefiner.isSupported()) {
+      return HiddenClassDefiner.define(lookup, classes.get(name));
+    }
+    ClassLoader parent = lookup != null ? lookup.lookupClass().getClassLoader() : null;
+    try {
+      return defineBatch(parent, classes).loadClass(name);
+    } catch (ClassNotFoundException e) {
+      throw new AssertionError("class not found: " + name, e);
+    }
+  }
+
+  /**
+   * Define all compiled classes of a batch in a new loader holding no bytes.
+   *
+   * <p>The classes are defined eagerly by a {@link SecureLoader}, which is closed before it is
+   * returned. The classes are unloaded together with the loader, once neither is reachable.
+   */
+  static ClassLoader defineBatch(ClassLoader parent, Map<String, byte[]> classes) {
+    ClassLoader loader = parent != null ? parent : Compilation.class.getClassLoader();
+    try (SecureLoader batch = new SecureLoader(loader, classes::get)) {
+      for (String name : classes.keySet()) {
+        batch.loadClass(name);
+      }
+      return batch;
+    } catch (ClassNotFoundException e) {
+      throw new AssertionError("class not found in batch: " + classes.keySet(), e);
+    }
+  }
+
+  /** Return name of the only class not nested in another one of the given classes. */
+  static String topLevelName(Map<String, byte[]> classes) {
+    List<String> names = new ArrayList<>();
+    for (String name : classes.keySet()) {
+      if (classes.keySet().stream().noneMatch(other -> name.startsWith(other + '$'))) {
+        names.add(name);
+      }
+    }
+    if (names.size() != 1) {
+      throw new IllegalArgumentException("expected single top level class, but got: " + names);
+    }
+    return names.get(0);
   }
 
   static JavaFileObject source(String uri, String charContent) {
@@ -0,0 +1,454 @@
+package com.github.sormuras.beethoven;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.processing.Processor;
+import javax.tools.JavaFileObject;
+
+/**
+ * Content-addressed cache of compiled class bytes.
+ *
+ * <p>Entries are keyed by a SHA-256 hash over the target release, the runtime version, the implicit
+ * class path of the running JVM, the compiler options, the processor class names and the URIs and
+ * contents of all compilation units. Class path entries contribute their size and modification
+ * time, taken when the cache is created. A hit skips javac and defines the classes from the cached
+ * bytes in a new loader. The in-memory tier evicts least recently used entries when either the
+ * entry or the byte bound is exceeded.
+ *
+ * <p>The optional on-disk tier stores one file per entry in the given directory. It is bounded by
+ * its own byte limit, least recently used files are deleted by {@link #prune()} after each write.
+ * Writing is best effort: failures leave the tier untouched and don't fail the compilation.
+ * Unreadable files are treated as misses and replaced.
+ */
+public class CompilationCache {
+
+  private final int maxEntries;
+  private final long maxBytes;
+  private final Path directory;
+  private final long maxDiskBytes;
+  private final String classPath;
+  private final Map<String, Map<String, byte[]>> map;
+  private long bytes = 0;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder diskHits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder compiledBytes = new LongAdder();
+
+  public CompilationCache(int maxEntries, long maxBytes) {
+    this(maxEntries, maxBytes, null);
+  }
+
+  /** Create cache with an optional on-disk tier directory bounded by {@code maxBytes} as well. */
+  public CompilationCache(int maxEntries, long maxBytes, Path directory) {
+    this(maxEntries, maxBytes, directory, maxBytes);
+  }
+
+  /** Create cache with the given in-memory bounds and an optional bounded on-disk tier. */
+  public CompilationCache(int maxEntries, long maxBytes, Path directory, long maxDiskBytes) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("maxEntries must be greater than 0, but is " + maxEntries);
+    }
+    if (maxBytes <= 0) {
+      throw new IllegalArgumentException("maxBytes must be greater than 0, but is " + maxBytes);
+    }
+    if (maxDiskBytes <= 0) {
+      throw new IllegalArgumentException(
+          "maxDiskBytes must be greater than 0, but is " + maxDiskBytes);
+    }
+    this.maxEntries = maxEntries;
+    this.maxBytes = maxBytes;
+    this.directory = directory;
+    this.maxDiskBytes = maxDiskBytes;
+    this.classPath = classPath();
+    this.map = new LinkedHashMap<>(64, 0.75f, true);
+  }
+
+  /** Remove all in-memory entries, the on-disk tier is left untouched. */
+  public void clear() {
+    synchronized (map) {
+      map.clear();
+      bytes = 0;
+    }
+  }
+
+  public ClassLoader compile(JavaFileObject... units) {
+    return compile(null, null, emptyList(), emptyList(), asList(units));
+  }
+
+  /**
+   * Return loader for the compiled units, compiling them with the session only on a cache miss.
+   *
+   * @param session the session used on a miss, {@code null} for a short-lived one
+   */
+  public ClassLoader compile(
+      Compilation.Session session,
+      ClassLoader parent,
+      List<String> options,
+      List<Processor> processors,
+      List<JavaFileObject> units) {
+    Map<String, byte[]> classes = compileClasses(session, options, processors, units);
+    ClassLoader loader = parent != null ? parent : Compilation.class.getClassLoader();
+    return new Compilation.SecureLoader(loader, classes::get);
+  }
+
+  /**
+   * Return cached class bytes or compile them with the session on a cache miss.
+   *
+   * <p>The returned map is unmodifiable and shared with other callers, its byte arrays must not be
+   * modified.
+   */
+  public Map<String, byte[]> compileClasses(
+      Compilation.Session session,
+      List<String> options,
+      List<Processor> processors,
+      List<JavaFileObject> units) {
+    String key = key(options, processors, units);
+    Map<String, byte[]> classes;
+    synchronized (map) {
+      classes = map.get(key);
+    }
+    if (classes != null) {
+      hits.increment();
+      return classes;
+    }
+    classes = read(key);
+    if (classes != null) {
+      diskHits.increment();
+      put(key, classes);
+      return classes;
+    }
+    misses.increment();
+    if (session != null) {
+      classes = session.compileClasses(options, processors, units);
+    } else {
+      try (Compilation.Session temporary = new Compilation.Session()) {
+        classes = temporary.compileClasses(options, processors, units);
+      }
+    }
+    classes = Collections.unmodifiableMap(classes);
+    compiledBytes.add(size(classes));
+    put(key, classes);
+    write(key, classes);
+    return classes;
+  }
+
+  /** Return bytes held by the in-memory tier. */
+  public long getBytes() {
+    synchronized (map) {
+      return bytes;
+    }
+  }
+
+  /** Return number of class bytes produced by javac on misses. */
+  public long getCompiledBytes() {
+    return compiledBytes.sum();
+  }
+
+  public Path getDirectory() {
+    return directory;
+  }
+
+  public long getDiskHits() {
+    return diskHits.sum();
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+
+  public long getMaxDiskBytes() {
+    return maxDiskBytes;
+  }
+
+  public int getMaxEntries() {
+    return maxEntries;
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /** Return hex-encoded hash of everything influencing the class bytes of a compilation. */
+  public String key(List<String> options, List<Processor> processors, List<JavaFileObject> units) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new AssertionError("SHA-256 not available", e);
+    }
+    update(digest, "release", release(options));
+    update(digest, "runtime", System.getProperty("java.runtime.version", ""));
+    update(digest, "classpath", classPath);
+    for (String option : options) {
+      update(digest, "option", option);
+    }
+    for (Processor processor : processors) {
+      update(digest, "processor", processor.getClass().getName());
+    }
+    List<JavaFileObject> sorted = new ArrayList<>(units);
+    sorted.sort(Comparator.comparing(unit -> unit.toUri().toString()));
+    for (JavaFileObject unit : sorted) {
+      update(digest, "uri", unit.toUri().toString());
+      try {
+        update(digest, "content", unit.getCharContent(true).toString());
+      } catch (IOException e) {
+        throw new UncheckedIOException("reading " + unit + " failed", e);
+      }
+    }
+    return hex(digest.digest());
+  }
+
+  /**
+   * Delete least recently used files of the on-disk tier until it fits into its byte bound.
+   *
+   * @return number of deleted files
+   */
+  public int prune() {
+    if (directory == null || !Files.isDirectory(directory)) {
+      return 0;
+    }
+    List<Path> files = new ArrayList<>();
+    Map<Path, BasicFileAttributes> attributes = new HashMap<>();
+    long total = 0;
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.classes")) {
+      for (Path file : stream) {
+        try {
+          BasicFileAttributes attribute = Files.readAttributes(file, BasicFileAttributes.class);
+          files.add(file);
+          attributes.put(file, attribute);
+          total += attribute.size();
+        } catch (IOException e) {
+          // deleted concurrently
+        }
+      }
+    } catch (IOException e) {
+      return 0;
+    }
+    files.sort(Comparator.comparing(file -> attributes.get(file).lastModifiedTime()));
+    int deleted = 0;
+    for (Path file : files) {
+      if (total <= maxDiskBytes) {
+        break;
+      }
+      try {
+        if (Files.deleteIfExists(file)) {
+          deleted++;
+        }
+        total -= attributes.get(file).size();
+      } catch (IOException e) {
+        // retried by the next prune
+      }
+    }
+    return deleted;
+  }
+
+  public int size() {
+    synchronized (map) {
+      return map.size();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "CompilationCache [size=%d, bytes=%d, hits=%d, diskHits=%d, misses=%d]",
+        size(), getBytes(), getHits(), getDiskHits(), getMisses());
+  }
+
+  private void put(String key, Map<String, byte[]> classes) {
+    synchronized (map) {
+      Map<String, byte[]> replaced = map.put(key, classes);
+      bytes += size(classes) - (replaced == null ? 0 : size(replaced));
+      while (map.size() > 1 && (map.size() > maxEntries || bytes > maxBytes)) {
+        Map.Entry<String, Map<String, byte[]>> eldest = map.entrySet().iterator().next();
+        bytes -= size(eldest.getValue());
+        map.remove(eldest.getKey());
+      }
+    }
+  }
+
+  private Map<String, byte[]> read(String key) {
+    if (directory == null) {
+      return null;
+    }
+    Path file = directory.resolve(key + ".classes");
+    Map<String, byte[]> classes = new TreeMap<>();
+    try {
+      byte[] data = Files.readAllBytes(file);
+      DataInputStream input = new DataInputStream(new ByteArrayInputStream(data));
+      int count = input.readInt();
+      for (int i = 0; i < count; i++) {
+        String name = input.readUTF();
+        int length = input.readInt();
+        if (length < 0 || length > input.available()) {
+          throw new EOFException("truncated class " + name + " of length " + length);
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        classes.put(name, bytes);
+      }
+      if (count < 0 || input.available() != 0) {
+        throw new IOException("corrupt entry count " + count);
+      }
+      touch(file);
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (IOException e) {
+      // truncated or corrupt file: treat as miss, it is overwritten after compilation
+      try {
+        Files.deleteIfExists(file);
+      } catch (IOException ignored) {
+        // write() replaces it
+      }
+      return null;
+    }
+    return Collections.unmodifiableMap(classes);
+  }
+
+  /** Store the classes in the on-disk tier, if present, ignoring any I/O failure. */
+  private void write(String key, Map<String, byte[]> classes) {
+    if (directory == null) {
+      return;
+    }
+    Path temporary = null;
+    try {
+      Files.createDirectories(directory);
+      temporary = Files.createTempFile(directory, key, ".tmp");
+      try (OutputStream stream = Files.newOutputStream(temporary);
+          DataOutputStream output = new DataOutputStream(stream)) {
+        output.writeInt(classes.size());
+        for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+          output.writeUTF(entry.getKey());
+          output.writeInt(entry.getValue().length);
+          output.write(entry.getValue());
+        }
+      }
+      // replace atomically, if supported, concurrent writers of the same key write identical bytes
+      Path target = directory.resolve(key + ".classes");
+      try {
+        Files.move(
+            temporary,
+            target,
+            StandardCopyOption.ATOMIC_MOVE,
+            StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+      temporary = null;
+    } catch (IOException e) {
+      // best effort: the entry is compiled again on the next miss
+      return;
+    } finally {
+      if (temporary != null) {
+        try {
+          Files.deleteIfExists(temporary);
+        } catch (IOException ignored) {
+          // left for manual cleanup, prune() only considers entry files
+        }
+      }
+    }
+    prune();
+  }
+
+  /** Return implicit class path with size and modification time of each entry. */
+  private static String classPath() {
+    StringBuilder builder = new StringBuilder();
+    for (String entry : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+      builder.append(entry);
+      try {
+        Path path = Paths.get(entry);
+        builder.append('@').append(Files.size(path));
+        builder.append('@').append(Files.getLastModifiedTime(path).toMillis());
+      } catch (IOException | InvalidPathException e) {
+        // missing or invalid entries contribute their name only
+      }
+      builder.append(File.pathSeparatorChar);
+    }
+    return builder.toString();
+  }
+
+  /** Return lower-case hex encoding of the given bytes. */
+  public static String hex(byte[] bytes) {
+    StringBuilder builder = new StringBuilder(bytes.length * 2);
+    for (byte b : bytes) {
+      builder.append(Character.forDigit((b >> 4) & 0xF, 16));
+      builder.append(Character.forDigit(b & 0xF, 16));
+    }
+    return builder.toString();
+  }
+
+  private static String release(List<String> options) {
+    for (int i = 0; i < options.size(); i++) {
+      String option = options.get(i);
+      if (option.startsWith("--release=")) {
+        return option.substring(10);
+      }
+      boolean last = i == options.size() - 1;
+      if (!last && (option.equals("--release") || option.equals("-target"))) {
+        return options.get(i + 1);
+      }
+    }
+    return System.getProperty("java.specification.version");
+  }
+
+  private static long size(Map<String, byte[]> classes) {
+    long size = 0;
+    for (byte[] bytes : classes.values()) {
+      size += bytes.length;
+    }
+    return size;
+  }
+
+  /** Mark the file as recently used, ignoring any I/O failure. */
+  private static void touch(Path file) {
+    try {
+      Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+    } catch (IOException e) {
+      // pruned earlier than necessary
+    }
+  }
+
+  private static void update(MessageDigest digest, String label, String value) {
+    byte[] bytes = value.getBytes(UTF_8);
+    digest.update(label.getBytes(UTF_8));
+    digest.update((byte) 0);
+    digest.update(Integer.toString(bytes.length).getBytes(UTF_8));
+    digest.update((byte) 0);
+    digest.update(bytes);
+  }
+}
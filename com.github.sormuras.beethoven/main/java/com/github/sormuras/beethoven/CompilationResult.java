@@ -0,0 +1,91 @@
+package com.github.sormuras.beethoven;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Outcome of a single compiler task.
+ *
+ * <p>Phase durations are the accumulated wall times between the started and finished events the
+ * compiler reports for each phase, like {@code PARSE}, {@code ENTER}, {@code ANALYZE} and {@code
+ * GENERATE}. Annotation processing rounds enclose parse and enter phases of generated sources.
+ */
+public class CompilationResult {
+
+  private final boolean success;
+  private final Map<String, byte[]> classes;
+  private final List<Diagnostic<? extends JavaFileObject>> diagnostics;
+  private final Map<String, Duration> phases;
+  private final Map<String, String> classSources;
+  private final Map<String, Integer> unitClassCounts;
+  private final Map<String, Long> unitClassSizes;
+  private final Duration duration;
+
+  public CompilationResult(
+      boolean success,
+      Map<String, byte[]> classes,
+      List<Diagnostic<? extends JavaFileObject>> diagnostics,
+      Map<String, Duration> phases,
+      Map<String, String> classSources,
+      Map<String, Integer> unitClassCounts,
+      Map<String, Long> unitClassSizes,
+      Duration duration) {
+    this.success = success;
+    this.classes = Collections.unmodifiableMap(classes);
+    this.diagnostics = Collections.unmodifiableList(diagnostics);
+    this.phases = Collections.unmodifiableMap(phases);
+    this.classSources = Collections.unmodifiableMap(classSources);
+    this.unitClassCounts = Collections.unmodifiableMap(unitClassCounts);
+    this.unitClassSizes = Collections.unmodifiableMap(unitClassSizes);
+    this.duration = duration;
+  }
+
+  /** Return class bytes keyed by class name, empty if compilation failed. */
+  public Map<String, byte[]> getClasses() {
+    return classes;
+  }
+
+  /** Return URI of the source unit each class was generated from, keyed by class name. */
+  public Map<String, String> getClassSources() {
+    return classSources;
+  }
+
+  public List<Diagnostic<? extends JavaFileObject>> getDiagnostics() {
+    return diagnostics;
+  }
+
+  /** Return wall time of the entire compiler task. */
+  public Duration getDuration() {
+    return duration;
+  }
+
+  /** Return accumulated durations keyed by phase name, in order of their first occurrence. */
+  public Map<String, Duration> getPhases() {
+    return phases;
+  }
+
+  /** Return number of classes generated per source unit URI. */
+  public Map<String, Integer> getUnitClassCounts() {
+    return unitClassCounts;
+  }
+
+  /** Return accumulated size of class bytes generated per source unit URI. */
+  public Map<String, Long> getUnitClassSizes() {
+    return unitClassSizes;
+  }
+
+  public boolean isSuccess() {
+    return success;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "CompilationResult [success=%s, classes=%d, diagnostics=%d, duration=%s, phases=%s]",
+        success, classes.size(), diagnostics.size(), duration, phases);
+  }
+}
@@ -1,6 +1,8 @@
 package com.github.sormuras.beethoven;
 
 import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.util.function.UnaryOperator;
 
 /**
@@ -134,6 +136,26 @@ public interface Listable extends UnaryOperator<Listing>, Comparable<Listable> {
     stream.print(list());
   }
 
+  /** Write this listable line by line to the given target using a {@link StreamingListing}. */
+  default void list(Appendable target) {
+    list(new StreamingListing(target));
+  }
+
+  /** Write this listable UTF-8 encoded to the given channel using a {@link ChannelAppendable}. */
+  default void list(WritableByteChannel channel) {
+    list(new ChannelAppendable(channel));
+  }
+
+  /** Write this listable UTF-8 encoded to the given channel reusing the given byte buffer. */
+  default void list(WritableByteChannel channel, ByteBuffer buffer) {
+    list(new ChannelAppendable(channel, buffer));
+  }
+
+  default void list(StreamingListing listing) {
+    listing.add(this);
+    listing.flush();
+  }
+
   default String list(String lineSeparator) {
     return list(new Listing(lineSeparator));
   }
@@ -125,7 +125,7 @@ public class Listing {
   }
 
   public Listing eval(String source, Object... args) {
-    return new Script(source).eval(this, args);
+    return Script.of(source).eval(this, args);
   }
 
   public Listing fmt(Locale locale, String format, Object... args) {
@@ -161,6 +161,11 @@ public class Listing {
     return indentationLookupTable[1];
   }
 
+  /** Return the indentation string for the given depth. */
+  public String getIndentationString(int depth) {
+    return indentationLookupTable[depth];
+  }
+
   /** The separator separating joined lines. */
   public String getLineSeparator() {
     return lineSeparator;
@@ -194,7 +199,7 @@ public class Listing {
       return this;
     }
     // prepend indentation pattern in front of the new line
-    collectedLines.add(indentationLookupTable[currentIndentationDepth] + newline);
+    collectedLines.add(getIndentationString(currentIndentationDepth) + newline);
     return this;
   }
 
@@ -203,7 +208,7 @@ public class Listing {
     // prepend indentation pattern in front of the non-empty current (and now last) line
     String lastLine = currentLine.toString();
     if (!lastLine.isEmpty()) {
-      lastLine = indentationLookupTable[currentIndentationDepth] + lastLine;
+      lastLine = getIndentationString(currentIndentationDepth) + lastLine;
     }
     if (collectedLines.isEmpty()) {
       return lastLine;
@@ -77,11 +77,11 @@ public class Name implements Listable {
       throw new IllegalArgumentException("Anonymous. No name. Compiler generated: " + type);
     }
     if (type.isLocalClass()) {
-      return new Name(0, singletonList(type.getSimpleName()));
+      return intern(0, singletonList(type.getSimpleName()), false);
     }
     String[] packageNames = DOT.split(type.getName()); // java[.]lang[.]Thread$State
     String[] identifiers = DOT.split(type.getCanonicalName()); // java[.]lang[.]Thread[.]State
-    return new Name(packageNames.length - 1, Arrays.asList(identifiers));
+    return intern(packageNames.length - 1, Arrays.asList(identifiers), false);
   }
 
   /**
@@ -107,11 +107,11 @@ public class Name implements Listable {
       if (e.getKind() == ElementKind.PACKAGE) {
         PackageElement casted = (PackageElement) e;
         if (casted.isUnnamed()) {
-          return new Name(0, simpleNames);
+          return intern(0, simpleNames, false);
         }
         String[] packageNames = DOT.split(casted.getQualifiedName().toString());
         simpleNames.addAll(0, Arrays.asList(packageNames));
-        return new Name(packageNames.length, simpleNames);
+        return intern(packageNames.length, simpleNames, false);
       }
       simpleNames.add(0, e.getSimpleName().toString());
     }
@@ -160,7 +160,7 @@ public class Name implements Listable {
     assert packageLevel <= names.size() : "Package level " + packageLevel + " too high: " + names;
     assert names.stream().allMatch(Objects::nonNull) : "Null-name in " + names;
     assert names.stream().allMatch(SourceVersion::isName) : "Non-name in " + names;
-    return new Name(packageLevel, names, isMemberReference);
+    return intern(packageLevel, names, isMemberReference);
   }
 
   /**
@@ -181,7 +181,7 @@ public class Name implements Listable {
     Name declaringName = name(member.getDeclaringClass());
     List<String> simples = new ArrayList<>(Arrays.asList(DOT.split(declaringName.canonical())));
     simples.add(member.getName());
-    return new Name(declaringName.packageLevel, simples, true);
+    return intern(declaringName.packageLevel, simples, true);
   }
 
   /** Create name instance for the identifiers by delegating to {@link #name(List)}. */
@@ -192,6 +192,23 @@ public class Name implements Listable {
     return name(Arrays.asList(identifiers));
   }
 
+  /**
+   * Return the shared instance equal to the given name.
+   *
+   * <p>All static factory methods return interned names: identical names share one instance,
+   * making equality checks and collection lookups cheap. Unused names are not retained.
+   *
+   * @return {@link Name}
+   */
+  public static Name intern(Name name) {
+    List<String> identifiers = Arrays.asList(DOT.split(name.canonical));
+    return intern(name.packageLevel, identifiers, name.isMemberReference);
+  }
+
+  static Name intern(int packageLevel, List<String> identifiers, boolean isMemberReference) {
+    return NameTable.INSTANCE.intern(packageLevel, identifiers, isMemberReference);
+  }
+
   /** Create new Name based on the class type and declared member name. */
   public static Name reflect(Class<?> type, String declaredName) {
     try {
@@ -260,6 +277,17 @@ public class Name implements Listable {
     return canonical;
   }
 
+  @Override
+  public int compareTo(Listable other) {
+    if (this == other) {
+      return 0;
+    }
+    if (other instanceof Name) {
+      return canonical.compareTo(((Name) other).canonical);
+    }
+    return Listable.super.compareTo(other);
+  }
+
   /** Create new enclosing {@link Name} instance based on this identifiers. */
   public Name enclosing() {
     if (!isEnclosed()) {
@@ -278,7 +306,8 @@ public class Name implements Listable {
     if (other == null || getClass() != other.getClass()) {
       return false;
     }
-    return hashCode() == other.hashCode();
+    Name that = (Name) other;
+    return packageLevel == that.packageLevel && canonical.equals(that.canonical);
   }
 
   @Override
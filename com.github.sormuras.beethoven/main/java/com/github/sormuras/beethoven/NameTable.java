@@ -0,0 +1,109 @@
+package com.github.sormuras.beethoven;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Thread-safe table of interned {@link Name} instances.
+ *
+ * <p>Names are keyed by their package level and identifiers, like {@link Name#equals(Object)}. The
+ * member reference flag doesn't take part in equality: a name differing from the interned one only
+ * by its flag is returned as a new, not interned instance. The table only holds weak references to
+ * its names: unused names are collected and their entries are expunged on subsequent lookups.
+ */
+final class NameTable {
+
+  /** Lookup key, wrapping the caller's identifiers until a new entry is stored. */
+  private static final class Key {
+
+    private final int packageLevel;
+    private final List<String> identifiers;
+    private final int hash;
+
+    Key(int packageLevel, List<String> identifiers) {
+      this.packageLevel = packageLevel;
+      this.identifiers = identifiers;
+      this.hash = 31 * packageLevel + identifiers.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return hash == other.hash
+          && packageLevel == other.packageLevel
+          && identifiers.equals(other.identifiers);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  /** Weak reference to an interned name remembering its key for expunging. */
+  private static final class Entry extends WeakReference<Name> {
+
+    private final Key key;
+
+    Entry(Name name, Key key, ReferenceQueue<Name> queue) {
+      super(name, queue);
+      this.key = key;
+    }
+  }
+
+  static final NameTable INSTANCE = new NameTable();
+
+  private final ConcurrentMap<Key, Entry> map = new ConcurrentHashMap<>();
+  private final ReferenceQueue<Name> queue = new ReferenceQueue<>();
+
+  /** Return the shared name instance for the given components, creating it on demand. */
+  Name intern(int packageLevel, List<String> identifiers, boolean isMemberReference) {
+    expungeStaleEntries();
+    Entry entry = map.get(new Key(packageLevel, identifiers));
+    if (entry != null) {
+      Name name = entry.get();
+      if (name != null && name.isMemberReference() == isMemberReference) {
+        return name;
+      }
+      if (name != null) {
+        return new Name(packageLevel, identifiers, isMemberReference);
+      }
+    }
+    List<String> copy = Collections.unmodifiableList(new ArrayList<>(identifiers));
+    Key key = new Key(packageLevel, copy);
+    Name name = new Name(packageLevel, copy, isMemberReference);
+    Entry created = new Entry(name, key, queue);
+    while (true) {
+      Entry existing = map.putIfAbsent(key, created);
+      if (existing == null) {
+        return name;
+      }
+      Name other = existing.get();
+      if (other != null) {
+        return other.isMemberReference() == isMemberReference ? other : name;
+      }
+      if (map.replace(key, existing, created)) {
+        return name;
+      }
+    }
+  }
+
+  private void expungeStaleEntries() {
+    for (Reference<? extends Name> reference; (reference = queue.poll()) != null; ) {
+      Entry entry = (Entry) reference;
+      map.remove(entry.key, entry);
+    }
+  }
+}
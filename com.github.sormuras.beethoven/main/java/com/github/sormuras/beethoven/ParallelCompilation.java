@@ -0,0 +1,282 @@
+package com.github.sormuras.beethoven;
+
+import static java.util.Collections.emptyList;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Compiles independent units in shards concurrently, each shard in its own compiler task.
+ *
+ * <p>Units referencing each other are put into the same shard by {@link #partition(List, int)}.
+ * Each shard is compiled by a {@link Compilation.Session} taken from a pool, sessions stay warm
+ * for subsequent calls until this instance is closed. The class bytes of all shards are merged and
+ * defined by a single loader. Should shards fail with unresolved symbols only, likely due to a
+ * dependency not detected by the partitioning, all units are compiled again in a single task.
+ * Other failures, like syntax or type errors, are reported right away.
+ */
+public class ParallelCompilation implements AutoCloseable {
+
+  /**
+   * Partition the units into at most {@code count} shards of similar source size.
+   *
+   * <p>Dependencies are over-approximated: two units end up in the same shard, if the source of one
+   * unit contains the simple name of a type declared by the other unit, as an identifier. Declared
+   * types are the primary type named by the file name and all identifiers following a {@code
+   * class}, {@code interface}, {@code enum} or {@code record} keyword, including secondary top
+   * level and nested types.
+   */
+  public static List<List<JavaFileObject>> partition(List<JavaFileObject> units, int count) {
+    if (count <= 0) {
+      throw new IllegalArgumentException("count must be greater than 0, but is " + count);
+    }
+    int size = units.size();
+    List<List<String>> identifiers = new ArrayList<>(size);
+    long[] lengths = new long[size];
+    Map<String, Integer> declarations = new HashMap<>();
+    int[] parents = new int[size];
+    for (int i = 0; i < size; i++) {
+      parents[i] = i;
+      String source = content(units.get(i));
+      lengths[i] = source.length();
+      List<String> unitIdentifiers = identifiers(source);
+      identifiers.add(unitIdentifiers);
+      for (String simpleName : declaredNames(units.get(i), unitIdentifiers)) {
+        Integer other = declarations.putIfAbsent(simpleName, i);
+        if (other != null) {
+          union(parents, i, other);
+        }
+      }
+    }
+    for (int i = 0; i < size; i++) {
+      for (String identifier : identifiers.get(i)) {
+        Integer other = declarations.get(identifier);
+        if (other != null) {
+          union(parents, i, other);
+        }
+      }
+    }
+    // collect connected components and their total source lengths
+    Map<Integer, List<JavaFileObject>> components = new LinkedHashMap<>();
+    Map<Integer, Long> weights = new HashMap<>();
+    for (int i = 0; i < size; i++) {
+      int root = find(parents, i);
+      components.computeIfAbsent(root, key -> new ArrayList<>()).add(units.get(i));
+      weights.merge(root, lengths[i], Long::sum);
+    }
+    // greedy: assign heaviest component to currently lightest shard
+    List<Integer> roots = new ArrayList<>(components.keySet());
+    roots.sort(Comparator.comparing(weights::get).reversed());
+    int shardCount = Math.min(count, roots.size());
+    List<List<JavaFileObject>> shards = new ArrayList<>(shardCount);
+    long[] loads = new long[shardCount];
+    for (int i = 0; i < shardCount; i++) {
+      shards.add(new ArrayList<>());
+    }
+    for (Integer root : roots) {
+      int lightest = 0;
+      for (int i = 1; i < shardCount; i++) {
+        if (loads[i] < loads[lightest]) {
+          lightest = i;
+        }
+      }
+      shards.get(lightest).addAll(components.get(root));
+      loads[lightest] += weights.get(root);
+    }
+    return shards;
+  }
+
+  private static String content(JavaFileObject unit) {
+    try {
+      return unit.getCharContent(true).toString();
+    } catch (IOException e) {
+      throw new UncheckedIOException("reading " + unit + " failed", e);
+    }
+  }
+
+  /** Return simple names of the types declared by the unit, over-approximated. */
+  private static List<String> declaredNames(JavaFileObject unit, List<String> identifiers) {
+    List<String> names = new ArrayList<>();
+    names.add(simpleName(unit));
+    for (int i = 0; i < identifiers.size() - 1; i++) {
+      switch (identifiers.get(i)) {
+        case "class":
+        case "interface":
+        case "enum":
+        case "record":
+          names.add(identifiers.get(i + 1));
+          break;
+        default:
+      }
+    }
+    return names;
+  }
+
+  private static RuntimeException failure(CompilationResult result) {
+    return new RuntimeException("Compilation failed! " + result.getDiagnostics());
+  }
+
+  private static int find(int[] parents, int index) {
+    while (parents[index] != index) {
+      parents[index] = parents[parents[index]];
+      index = parents[index];
+    }
+    return index;
+  }
+
+  private static List<String> identifiers(String source) {
+    List<String> identifiers = new ArrayList<>();
+    int length = source.length();
+    for (int i = 0; i < length; i++) {
+      if (!Character.isJavaIdentifierStart(source.charAt(i))) {
+        continue;
+      }
+      int start = i;
+      while (i + 1 < length && Character.isJavaIdentifierPart(source.charAt(i + 1))) {
+        i++;
+      }
+      identifiers.add(source.substring(start, i + 1));
+    }
+    return identifiers;
+  }
+
+  /** Return {@code true} if all errors of the result report unresolved symbols or packages. */
+  private static boolean isUnresolved(CompilationResult result) {
+    for (Diagnostic<? extends JavaFileObject> diagnostic : result.getDiagnostics()) {
+      if (diagnostic.getKind() != Diagnostic.Kind.ERROR) {
+        continue;
+      }
+      String code = String.valueOf(diagnostic.getCode());
+      boolean symbol = code.startsWith("compiler.err.cant.resolve");
+      if (!symbol && !code.equals("compiler.err.doesnt.exist")) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Return simple name of the unit's primary type, derived from its file name. */
+  private static String simpleName(JavaFileObject unit) {
+    String path = unit.toUri().getPath();
+    if (path == null) {
+      path = unit.toUri().getSchemeSpecificPart();
+    }
+    String name = path.substring(path.lastIndexOf('/') + 1);
+    int dot = name.indexOf('.');
+    return dot < 0 ? name : name.substring(0, dot);
+  }
+
+  private static void union(int[] parents, int a, int b) {
+    int rootA = find(parents, a);
+    int rootB = find(parents, b);
+    if (rootA != rootB) {
+      parents[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+    }
+  }
+
+  private final Executor executor;
+  private final int parallelism;
+  private final ConcurrentLinkedQueue<Compilation.Session> sessions;
+
+  /** Create parallel compilation running at most {@code parallelism} shards on the executor. */
+  public ParallelCompilation(Executor executor, int parallelism) {
+    if (parallelism <= 0) {
+      throw new IllegalArgumentException("parallelism must be greater than 0: " + parallelism);
+    }
+    this.executor = executor;
+    this.parallelism = parallelism;
+    this.sessions = new ConcurrentLinkedQueue<>();
+  }
+
+  @Override
+  public void close() {
+    for (Compilation.Session session; (session = sessions.poll()) != null; ) {
+      session.close();
+    }
+  }
+
+  /** Compile all units in shards and return a single loader defining all classes. */
+  public ClassLoader compile(ClassLoader parent, List<String> options, List<JavaFileObject> units) {
+    Map<String, byte[]> classes = compileClasses(options, units);
+    ClassLoader loader = parent != null ? parent : Compilation.class.getClassLoader();
+    return new Compilation.SecureLoader(loader, classes::get);
+  }
+
+  /** Compile all units in shards and return the merged class bytes keyed by class name. */
+  public Map<String, byte[]> compileClasses(List<String> options, List<JavaFileObject> units) {
+    List<List<JavaFileObject>> shards = partition(units, parallelism);
+    List<Future<CompilationResult>> futures = new ArrayList<>();
+    for (List<JavaFileObject> shard : shards) {
+      futures.add(CompletableFuture.supplyAsync(() -> compileShard(options, shard), executor));
+    }
+    Map<String, byte[]> classes = new TreeMap<>();
+    List<Throwable> failures = new ArrayList<>();
+    boolean unresolved = true;
+    for (Future<CompilationResult> future : futures) {
+      try {
+        CompilationResult result = future.get();
+        if (result.isSuccess()) {
+          classes.putAll(result.getClasses());
+          continue;
+        }
+        failures.add(failure(result));
+        unresolved &= isUnresolved(result);
+      } catch (ExecutionException e) {
+        failures.add(e.getCause());
+        unresolved = false;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("interrupted while compiling shards", e);
+      }
+    }
+    if (failures.isEmpty()) {
+      return classes;
+    }
+    if (shards.size() > 1 && unresolved) {
+      CompilationResult result = compileShard(options, units);
+      if (result.isSuccess()) {
+        return result.getClasses();
+      }
+      // the single task reports all diagnostics of the shards
+      failures.clear();
+      failures.add(failure(result));
+    }
+    RuntimeException exception = new RuntimeException("Compilation of shards failed!");
+    failures.forEach(exception::addSuppressed);
+    throw exception;
+  }
+
+  public Executor getExecutor() {
+    return executor;
+  }
+
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  private CompilationResult compileShard(List<String> options, List<JavaFileObject> shard) {
+    Compilation.Session session = sessions.poll();
+    if (session == null) {
+      session = new Compilation.Session();
+    }
+    try {
+      return session.call(options, emptyList(), shard);
+    } finally {
+      sessions.offer(session);
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package com.github.sormuras.beethoven;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+
+/**
+ * Listing that writes each finished line straight to an {@link Appendable} target.
+ *
+ * <p>Lines are not collected: memory is bounded by the current line instead of the size of the
+ * entire listing. Call {@link #flush()} after the last {@code add} to emit a pending, not yet
+ * terminated, last line.
+ */
+public class StreamingListing extends Listing {
+
+  private final Appendable target;
+  private boolean lastLineEmpty = true;
+
+  public StreamingListing(Appendable target) {
+    this(target, Style::auto);
+  }
+
+  public StreamingListing(Appendable target, Styling styling) {
+    this(target, "  ", System.lineSeparator(), styling);
+  }
+
+  public StreamingListing(Appendable target, String indent, String lineSeparator, Styling styling) {
+    super(indent, lineSeparator, styling);
+    this.target = Objects.requireNonNull(target, "target");
+  }
+
+  /** Emit the pending last line, if any, and flush the target if it is {@link Flushable}. */
+  public StreamingListing flush() {
+    StringBuilder line = getCurrentLine();
+    try {
+      if (line.length() > 0) {
+        target.append(getIndentationString(getCurrentIndentationDepth())).append(line);
+        line.setLength(0);
+        lastLineEmpty = false;
+      }
+      if (target instanceof Flushable) {
+        ((Flushable) target).flush();
+      }
+    } catch (IOException exception) {
+      throw new UncheckedIOException("Flushing listing failed", exception);
+    }
+    return this;
+  }
+
+  public Appendable getTarget() {
+    return target;
+  }
+
+  @Override
+  public boolean isLastLineEmpty() {
+    return lastLineEmpty;
+  }
+
+  @Override
+  public Listing newline() {
+    StringBuilder line = getCurrentLine();
+    try {
+      // trivial case: empty line (only write it if last line is not empty)
+      if (line.length() == 0) {
+        if (!lastLineEmpty) {
+          target.append(getLineSeparator());
+          lastLineEmpty = true;
+        }
+        return this;
+      }
+      // write indentation pattern in front of the new line
+      target.append(getIndentationString(getCurrentIndentationDepth()));
+      target.append(line);
+      target.append(getLineSeparator());
+      lastLineEmpty = false;
+    } catch (IOException exception) {
+      throw new UncheckedIOException("Writing line failed", exception);
+    } finally {
+      line.setLength(0);
+    }
+    return this;
+  }
+}
@@ -0,0 +1,146 @@
+package com.github.sormuras.beethoven.script;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Dispatch table mapping tags to actions.
+ *
+ * <p>A tag is looked up by its exact text first, then by its first character, and only then
+ * against actions registered without any key. A table is not thread-safe while being modified,
+ * parsers therefore only use {@link #unmodifiable() unmodifiable} snapshots of their tables.
+ */
+public class ActionTable {
+
+  /** Action guarded by a predicate. */
+  private static final class Candidate {
+
+    private final Predicate<String> predicate;
+    private final Action action;
+
+    Candidate(Predicate<String> predicate, Action action) {
+      this.predicate = predicate;
+      this.action = action;
+    }
+  }
+
+  /** Create new modifiable table holding all {@link Tag} actions. */
+  public static ActionTable standard() {
+    ActionTable table = new ActionTable();
+    table.put("$", Tag.LITERAL);
+    table.put("S", Tag.STRING);
+    table.put("L", Tag.LISTABLE);
+    table.put("N", Tag.NAME);
+    table.put("T", Tag.TYPE);
+    table.put("B", Tag.BINARY);
+    table.put("¶", Tag.NEWLINE);
+    table.put(";", Tag.CLOSE_STATEMENT);
+    table.put(">", Tag.INDENT);
+    table.put("<", Tag.UNINDENT);
+    table.put('>', tag -> repeats(tag, '>'), Tag.INDENT_INC);
+    table.put('<', tag -> repeats(tag, '<'), Tag.INDENT_DEC);
+    table.put('#', Tag.REFLECT);
+    return table;
+  }
+
+  private static boolean repeats(String tag, char character) {
+    for (int i = 0; i < tag.length(); i++) {
+      if (tag.charAt(i) != character) {
+        return false;
+      }
+    }
+    return !tag.isEmpty();
+  }
+
+  private final Map<String, Action> exact = new HashMap<>();
+  private final Map<Character, List<Candidate>> first = new HashMap<>();
+  private final List<Action> others = new ArrayList<>();
+  private final boolean modifiable;
+
+  /** Create new empty and modifiable table. */
+  public ActionTable() {
+    this.modifiable = true;
+  }
+
+  /** Create new modifiable copy of the given table. */
+  public ActionTable(ActionTable table) {
+    this(table, true);
+  }
+
+  private ActionTable(ActionTable table, boolean modifiable) {
+    this.exact.putAll(table.exact);
+    table.first.forEach((key, candidates) -> first.put(key, new ArrayList<>(candidates)));
+    this.others.addAll(table.others);
+    this.modifiable = modifiable;
+  }
+
+  /** Return action handling the given tag. */
+  public Action action(String tag) {
+    Action action = exact.get(tag);
+    if (action != null) {
+      return action;
+    }
+    if (!tag.isEmpty()) {
+      List<Candidate> candidates = first.get(tag.charAt(0));
+      if (candidates != null) {
+        for (Candidate candidate : candidates) {
+          if (candidate.predicate.test(tag)) {
+            return candidate.action;
+          }
+        }
+      }
+    }
+    for (Action other : others) {
+      if (other.handles(tag)) {
+        return other;
+      }
+    }
+    throw new IllegalArgumentException(String.format("No action handles: `%s`", tag));
+  }
+
+  /** Register action handling all tags it {@link Action#handles(String) handles}. */
+  public ActionTable add(Action action) {
+    checkModifiable();
+    others.add(Objects.requireNonNull(action, "action"));
+    return this;
+  }
+
+  /** Register action for tags starting with the given character it also handles. */
+  public ActionTable put(char character, Action action) {
+    return put(character, action::handles, action);
+  }
+
+  /** Register action for tags starting with the given character and matching the predicate. */
+  public ActionTable put(char character, Predicate<String> predicate, Action action) {
+    checkModifiable();
+    Candidate candidate = new Candidate(predicate, Objects.requireNonNull(action, "action"));
+    first.computeIfAbsent(character, key -> new ArrayList<>()).add(candidate);
+    return this;
+  }
+
+  /** Register action for the exact tag, replacing a previously registered one. */
+  public ActionTable put(String tag, Action action) {
+    checkModifiable();
+    exact.put(tag, Objects.requireNonNull(action, "action"));
+    return this;
+  }
+
+  public boolean isModifiable() {
+    return modifiable;
+  }
+
+  /** Return this table, if already unmodifiable, or an unmodifiable copy of it. */
+  public ActionTable unmodifiable() {
+    return modifiable ? new ActionTable(this, false) : this;
+  }
+
+  private void checkModifiable() {
+    if (!modifiable) {
+      throw new UnsupportedOperationException("Action table is unmodifiable");
+    }
+  }
+}
@@ -6,25 +6,44 @@ import java.util.List;
 
 public class Parser {
 
+  private static final ActionTable STANDARD = ActionTable.standard().unmodifiable();
+
   private final String actionBeginMarker;
   private final String actionEndMarker;
+  private final ActionTable actionTable;
 
   public Parser() {
     this("{{", "}}");
   }
 
   public Parser(String actionBeginMarker, String actionEndMarker) {
+    this(actionBeginMarker, actionEndMarker, STANDARD);
+  }
+
+  public Parser(String actionBeginMarker, String actionEndMarker, ActionTable actionTable) {
     this.actionBeginMarker = actionBeginMarker;
     this.actionEndMarker = actionEndMarker;
+    this.actionTable = actionTable.unmodifiable();
   }
 
   public Action action(String snippet) {
-    for (Action action : Tag.values()) {
-      if (action.handles(snippet)) {
-        return action;
-      }
-    }
-    throw new IllegalArgumentException(String.format("No action handles: `%s`", snippet));
+    return actionTable.action(snippet);
+  }
+
+  public String getActionBeginMarker() {
+    return actionBeginMarker;
+  }
+
+  public String getActionEndMarker() {
+    return actionEndMarker;
+  }
+
+  /**
+   * Return the unmodifiable action table of this parser, customize a {@link
+   * ActionTable#ActionTable(ActionTable) copy} of it to create another parser.
+   */
+  public ActionTable getActionTable() {
+    return actionTable;
   }
 
   public List<Command> parse(String source) {
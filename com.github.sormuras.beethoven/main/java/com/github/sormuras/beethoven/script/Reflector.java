@@ -0,0 +1,113 @@
+package com.github.sormuras.beethoven.script;
+
+import com.github.sormuras.beethoven.Name;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Resolves and caches chained no-arg method calls like {@code name.canonical} per receiver class.
+ *
+ * <p>Each segment is looked up as a public method named like the segment or, failing that, as a
+ * {@code get}-prefixed getter. Consecutive segments are composed into a single method handle as
+ * long as the runtime class of the intermediate result is known up front, i.e. the return type is
+ * primitive or final. The remaining segments are resolved against the runtime class of the
+ * intermediate result. Unresolvable paths are cached as well.
+ */
+final class Reflector {
+
+  /** Resolved accessor chain or a cached miss. */
+  private static final class Accessor {
+
+    private final MethodHandle handle;
+    private final String rest;
+    private final ReflectiveOperationException miss;
+
+    Accessor(MethodHandle handle, String rest) {
+      this.handle = handle;
+      this.rest = rest;
+      this.miss = null;
+    }
+
+    Accessor(ReflectiveOperationException miss) {
+      this.handle = null;
+      this.rest = null;
+      this.miss = miss;
+    }
+  }
+
+  private static final ClassValue<ConcurrentMap<String, Accessor>> ACCESSORS =
+      new ClassValue<ConcurrentMap<String, Accessor>>() {
+        @Override
+        protected ConcurrentMap<String, Accessor> computeValue(Class<?> type) {
+          return new ConcurrentHashMap<>();
+        }
+      };
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+  private static final MethodType OBJECT_TO_OBJECT =
+      MethodType.methodType(Object.class, Object.class);
+
+  /** Invoke the dot-separated method call sequence on the given argument. */
+  static Object reflect(String tag, Object argument) {
+    String path = tag;
+    while (!path.isEmpty()) {
+      Class<?> type = argument.getClass();
+      Accessor accessor = ACCESSORS.get(type).computeIfAbsent(path, key -> resolve(type, key));
+      if (accessor.miss != null) {
+        throw new IllegalArgumentException("Can't reflect tag: " + tag, accessor.miss);
+      }
+      try {
+        argument = accessor.handle.invokeExact(argument);
+      } catch (Error e) {
+        throw e;
+      } catch (Throwable throwable) {
+        throw new IllegalArgumentException("Can't reflect tag: " + tag, throwable);
+      }
+      path = accessor.rest;
+    }
+    return argument;
+  }
+
+  private static Accessor resolve(Class<?> type, String path) {
+    String[] segments = Name.DOT.split(path);
+    MethodHandle chain = null;
+    try {
+      for (int i = 0; i < segments.length; i++) {
+        Method method = method(type, segments[i]);
+        MethodHandle handle = LOOKUP.unreflect(method).asType(OBJECT_TO_OBJECT);
+        chain = chain == null ? handle : MethodHandles.filterReturnValue(chain, handle);
+        Class<?> returnType = MethodType.methodType(method.getReturnType()).wrap().returnType();
+        if (i + 1 < segments.length && !Modifier.isFinal(returnType.getModifiers())) {
+          String[] rest = Arrays.copyOfRange(segments, i + 1, segments.length);
+          return new Accessor(chain, String.join(".", rest));
+        }
+        type = returnType;
+      }
+    } catch (ReflectiveOperationException e) {
+      return new Accessor(e);
+    }
+    return new Accessor(chain, "");
+  }
+
+  private static Method method(Class<?> type, String name) throws NoSuchMethodException {
+    try {
+      return type.getMethod(name);
+    } catch (NoSuchMethodException e) {
+      if (name.isEmpty()) {
+        throw e;
+      }
+      return type.getMethod("get" + name.substring(0, 1).toUpperCase() + name.substring(1));
+    }
+  }
+
+  private Reflector() {
+    throw new AssertionError();
+  }
+}
@@ -1,50 +1,144 @@
 package com.github.sormuras.beethoven.script;
 
 import com.github.sormuras.beethoven.Listing;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.IntStream;
 
+/**
+ * Parsed and compiled script.
+ *
+ * <p>The argument of each argument-consuming command is resolved to an int slot at construction
+ * time. Positional slots, either implicitly counted or selected by index like {@code {{$:1}}},
+ * come first. Named selectors, like {@code {{$:name}}}, are mapped to the slots following them.
+ */
 public class Script {
 
   private final String source;
   private final List<Command> commands;
+  private final int[] slots;
+  private final int positionalSlotCount;
+  private final String[] slotKeys;
+  private final Map<String, Integer> nameToSlot;
+
+  /** Return a parsed script for the given source, reusing a cached instance if available. */
+  public static Script of(String source) {
+    return ScriptCache.DEFAULT.get(source);
+  }
 
   public Script(String source) {
+    this(source, new Parser());
+  }
+
+  public Script(String source, Parser parser) {
     this.source = source;
-    this.commands = new Parser().parse(source);
+    this.commands = parser.parse(source);
+    this.slots = new int[commands.size()];
+    // first pass: resolve positional slots
+    int argumentConsumingCommandCounter = 0;
+    int positionalSlotCount = 0;
+    for (int i = 0; i < slots.length; i++) {
+      Command command = commands.get(i);
+      int slot = -1;
+      if (command.consumesArgument()) {
+        slot = command.selector == null ? argumentConsumingCommandCounter++ : index(command);
+        positionalSlotCount = Math.max(positionalSlotCount, slot + 1);
+      }
+      slots[i] = slot;
+    }
+    this.positionalSlotCount = positionalSlotCount;
+    // second pass: map named selectors to slots following the positional ones
+    Map<String, Integer> nameToSlot = new LinkedHashMap<>();
+    for (int i = 0; i < slots.length; i++) {
+      Command command = commands.get(i);
+      if (command.consumesArgument() && slots[i] < 0) {
+        Integer slot = nameToSlot.get(command.selector);
+        if (slot == null) {
+          slot = positionalSlotCount + nameToSlot.size();
+          nameToSlot.put(command.selector, slot);
+        }
+        slots[i] = slot;
+      }
+    }
+    this.nameToSlot = Collections.unmodifiableMap(nameToSlot);
+    this.slotKeys = new String[positionalSlotCount + nameToSlot.size()];
+    for (int slot = 0; slot < positionalSlotCount; slot++) {
+      slotKeys[slot] = Integer.toString(slot);
+    }
+    nameToSlot.forEach((name, slot) -> slotKeys[slot] = name);
+  }
+
+  /**
+   * Return index denoted by the selector, or {@code -1} for a named selector.
+   *
+   * <p>Only canonical non-negative integers, like {@code "1"} but not {@code "01"} or {@code "+1"},
+   * are indexes, as only those match the keys of positional arguments.
+   */
+  private static int index(Command command) {
+    try {
+      int index = Integer.parseInt(command.selector);
+      return index >= 0 && Integer.toString(index).equals(command.selector) ? index : -1;
+    } catch (NumberFormatException e) {
+      return -1;
+    }
   }
 
   public List<Command> getCommands() {
     return commands;
   }
 
+  /** Return the immutable map of named selectors to their argument slots. */
+  public Map<String, Integer> getNameToSlot() {
+    return nameToSlot;
+  }
+
+  /** Return the number of argument slots, positional and named ones. */
+  public int getSlotCount() {
+    return slotKeys.length;
+  }
+
   public String getSource() {
     return source;
   }
 
+  /** Evaluate this script using positional arguments only. */
   public Listing eval(Listing listing, Object... args) {
-    Map<String, Object> map = new LinkedHashMap<>();
-    IntStream.range(0, args.length).forEach(i -> map.put(Integer.toString(i), args[i]));
-    return eval(listing, map);
+    for (int i = 0; i < slots.length; i++) {
+      int slot = slots[i];
+      Object argument = null;
+      if (slot >= 0) {
+        if (slot < positionalSlotCount && slot < args.length) {
+          argument = args[slot];
+        }
+        if (argument == null) {
+          throw new IllegalArgumentException(
+              "No argument for `" + slotKeys[slot] + "` available in: " + Arrays.toString(args));
+        }
+      }
+      commands.get(i).execute(listing, argument);
+    }
+    return listing;
   }
 
+  /** Evaluate this script using arguments looked up by their positional index or name. */
   public Listing eval(Listing listing, Map<String, Object> map) {
-    int argumentConsumingCommandCounter = 0;
-    for (Command command : commands) {
+    Object[] arguments = new Object[slotKeys.length];
+    for (int slot = 0; slot < arguments.length; slot++) {
+      arguments[slot] = map.get(slotKeys[slot]);
+    }
+    for (int i = 0; i < slots.length; i++) {
+      int slot = slots[i];
       Object argument = null;
-      if (command.consumesArgument()) {
-        String key = command.selector;
-        if (key == null) {
-          key = String.valueOf(argumentConsumingCommandCounter++);
-        }
-        argument = map.get(key);
+      if (slot >= 0) {
+        argument = arguments[slot];
         if (argument == null) {
+          String key = slotKeys[slot];
           throw new IllegalArgumentException("No argument for `" + key + "` available in: " + map);
         }
       }
-      command.execute(listing, argument);
+      commands.get(i).execute(listing, argument);
     }
     return listing;
   }
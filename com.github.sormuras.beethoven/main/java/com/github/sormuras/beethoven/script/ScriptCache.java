@@ -0,0 +1,128 @@
+package com.github.sormuras.beethoven.script;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, thread-safe cache of parsed {@link Script} instances.
+ *
+ * <p>Scripts are keyed by their source and the action marker pair. When the capacity is exceeded,
+ * the least recently used script is evicted.
+ */
+public class ScriptCache {
+
+  /** Cache key composed of the script source and the action marker pair. */
+  private static final class Key {
+
+    private final String source;
+    private final String actionBeginMarker;
+    private final String actionEndMarker;
+
+    Key(String source, String actionBeginMarker, String actionEndMarker) {
+      this.source = source;
+      this.actionBeginMarker = actionBeginMarker;
+      this.actionEndMarker = actionEndMarker;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return source.equals(other.source)
+          && actionBeginMarker.equals(other.actionBeginMarker)
+          && actionEndMarker.equals(other.actionEndMarker);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(source, actionBeginMarker, actionEndMarker);
+    }
+  }
+
+  /** Default cache used by {@link Script#of(String)}. */
+  public static final ScriptCache DEFAULT = new ScriptCache(1024);
+
+  private final int capacity;
+  private final Map<Key, Script> map;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  public ScriptCache(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be greater than 0, but is " + capacity);
+    }
+    this.capacity = capacity;
+    this.map =
+        new LinkedHashMap<Key, Script>(64, 0.75f, true) {
+          private static final long serialVersionUID = 1L;
+
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Key, Script> eldest) {
+            return size() > ScriptCache.this.capacity;
+          }
+        };
+  }
+
+  public void clear() {
+    synchronized (map) {
+      map.clear();
+    }
+  }
+
+  /** Return parsed script for the given source using the default action markers. */
+  public Script get(String source) {
+    return get(source, "{{", "}}");
+  }
+
+  /** Return parsed script for the given source and action markers. */
+  public Script get(String source, String actionBeginMarker, String actionEndMarker) {
+    Key key = new Key(source, actionBeginMarker, actionEndMarker);
+    Script script;
+    synchronized (map) {
+      script = map.get(key);
+    }
+    if (script != null) {
+      hits.increment();
+      return script;
+    }
+    misses.increment();
+    // parse outside the lock, a concurrent miss parses the same source twice at worst
+    script = new Script(source, new Parser(actionBeginMarker, actionEndMarker));
+    synchronized (map) {
+      Script existing = map.putIfAbsent(key, script);
+      return existing != null ? existing : script;
+    }
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  public int size() {
+    synchronized (map) {
+      return map.size();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "ScriptCache [size=%d, capacity=%d, hits=%d, misses=%d]",
+        size(), capacity, getHits(), getMisses());
+  }
+}
@@ -4,9 +4,7 @@ import com.github.sormuras.beethoven.Listable;
 import com.github.sormuras.beethoven.Listing;
 import com.github.sormuras.beethoven.Name;
 import com.github.sormuras.beethoven.type.Type;
-import java.lang.reflect.Method;
 import java.util.Objects;
-import java.util.Scanner;
 import java.util.regex.Pattern;
 
 public enum Tag implements Action {
@@ -43,23 +41,7 @@ public enum Tag implements Action {
     if (tag.startsWith("#")) {
       tag = tag.substring(1);
     }
-    try (Scanner scanner = new Scanner(tag)) {
-      scanner.useDelimiter(Name.DOT);
-      while (scanner.hasNext()) {
-        String name = scanner.next();
-        Method method;
-        try {
-          method = argument.getClass().getMethod(name);
-        } catch (NoSuchMethodException e) {
-          name = "get" + name.substring(0, 1).toUpperCase() + name.substring(1);
-          method = argument.getClass().getMethod(name);
-        }
-        argument = method.invoke(argument);
-      }
-      return argument;
-    } catch (ReflectiveOperationException exception) {
-      throw new IllegalArgumentException("Can't reflect tag: " + tag, exception);
-    }
+    return Reflector.reflect(tag, argument);
   }
 
   final Pattern pattern;
@@ -6,6 +6,7 @@ import com.github.sormuras.beethoven.Listable;
 import com.github.sormuras.beethoven.Listing;
 import java.lang.annotation.ElementType;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.function.IntFunction;
@@ -38,10 +39,26 @@ public class ArrayType extends ReferenceType {
       return applyAnnotations(listing).add("[]");
     }
 
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (obj == null || getClass() != obj.getClass()) {
+        return false;
+      }
+      return getAnnotations().equals(((Dimension) obj).getAnnotations());
+    }
+
     @Override
     public ElementType getAnnotationsTarget() {
       return ElementType.TYPE_USE;
     }
+
+    @Override
+    public int hashCode() {
+      return getAnnotations().hashCode();
+    }
   }
 
   public static ArrayType array(Class<?> componentType, int size) {
@@ -91,7 +108,7 @@ public class ArrayType extends ReferenceType {
   }
 
   @Override
-  public String binary() {
+  String computeBinary() {
     StringBuilder builder = new StringBuilder();
     getDimensions().forEach(dimension -> builder.append('['));
     Type componentType = getComponentType();
@@ -101,6 +118,27 @@ public class ArrayType extends ReferenceType {
     return builder.append('L').append(componentType.binary()).append(';').toString();
   }
 
+  @Override
+  String computeDescriptor() {
+    return brackets() + componentType.descriptor();
+  }
+
+  @Override
+  int computeHashCode() {
+    return 31 * componentType.hashCode() + dimensions.hashCode();
+  }
+
+  @Override
+  String computeSignature() {
+    return brackets() + componentType.signature();
+  }
+
+  private String brackets() {
+    char[] brackets = new char[dimensions.size()];
+    Arrays.fill(brackets, '[');
+    return new String(brackets);
+  }
+
   @Override
   public List<Annotation> getAnnotations() {
     return getDimensions().get(getAnnotationsIndex()).getAnnotations();
@@ -124,8 +162,21 @@ public class ArrayType extends ReferenceType {
     return dimensions.stream().anyMatch(Annotated::isAnnotated);
   }
 
+  @Override
+  boolean isEqualTo(Type type) {
+    ArrayType other = (ArrayType) type;
+    return componentType.equals(other.componentType) && dimensions.equals(other.dimensions);
+  }
+
   @Override
   public boolean isEmpty() {
     return false;
   }
+
+  @Override
+  public void share() {
+    super.share();
+    componentType.share();
+    dimensions.forEach(Dimension::share);
+  }
 }
@@ -49,6 +49,20 @@ public class ClassType extends ReferenceType {
       return listing;
     }
 
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (obj == null || getClass() != obj.getClass()) {
+        return false;
+      }
+      Simple other = (Simple) obj;
+      return name.equals(other.name)
+          && typeArguments.equals(other.typeArguments)
+          && getAnnotations().equals(other.getAnnotations());
+    }
+
     @Override
     public ElementType getAnnotationsTarget() {
       return ElementType.TYPE_USE;
@@ -62,11 +76,35 @@ public class ClassType extends ReferenceType {
       return typeArguments;
     }
 
+    @Override
+    public int hashCode() {
+      int result = name.hashCode();
+      result = 31 * result + typeArguments.hashCode();
+      return 31 * result + getAnnotations().hashCode();
+    }
+
     public boolean isGeneric() {
       return !typeArguments.isEmpty();
     }
+
+    @Override
+    public void share() {
+      super.share();
+      typeArguments.forEach(argument -> argument.getArgument().share());
+    }
   }
 
+  /** Unannotated class types, computed once per class. */
+  private static final ClassValue<ClassType> TYPES =
+      new ClassValue<ClassType>() {
+        @Override
+        protected ClassType computeValue(Class<?> type) {
+          ClassType classType = new ClassType(Name.name(type).packageName(), simples(type));
+          classType.share();
+          return classType;
+        }
+      };
+
   public static final ClassType OBJECT = ClassType.type(Object.class);
 
   /** Create simple {@code Name} for the given {@code ClassType} instance. */
@@ -89,8 +127,9 @@ public class ClassType extends ReferenceType {
     return rawClassType.parameterized(function);
   }
 
+  /** Return cached unannotated {@code ClassType} of the given class. */
   public static ClassType type(Class<?> type) {
-    return new ClassType(Name.name(type).packageName(), simples(type));
+    return TYPES.get(type);
   }
 
   public static ClassType type(Name name) {
@@ -181,7 +220,7 @@ public class ClassType extends ReferenceType {
   }
 
   @Override
-  public String binary() {
+  String computeBinary() {
     StringBuilder builder = new StringBuilder();
     if (!getPackageName().isEmpty()) {
       builder.append(getPackageName()).append('.');
@@ -190,6 +229,44 @@ public class ClassType extends ReferenceType {
     return builder.toString();
   }
 
+  @Override
+  String computeDescriptor() {
+    return 'L' + binary().replace('.', '/') + ';';
+  }
+
+  @Override
+  int computeHashCode() {
+    return 31 * packageName.hashCode() + simples.hashCode();
+  }
+
+  /** Nested names are separated by {@code $}, or by {@code .} after a parameterized one. */
+  @Override
+  String computeSignature() {
+    if (!isGeneric()) {
+      return descriptor();
+    }
+    StringBuilder builder = new StringBuilder("L");
+    if (!getPackageName().isEmpty()) {
+      builder.append(getPackageName().replace('.', '/')).append('/');
+    }
+    // like javac, separate by '.' once any enclosing type is parameterized
+    boolean parameterizedSoFar = false;
+    for (int i = 0; i < simples.size(); i++) {
+      Simple simple = simples.get(i);
+      if (i > 0) {
+        builder.append(parameterizedSoFar ? '.' : '$');
+      }
+      builder.append(simple.getName());
+      if (simple.isGeneric()) {
+        builder.append('<');
+        simple.getTypeArguments().forEach(argument -> builder.append(argument.signature()));
+        builder.append('>');
+        parameterizedSoFar = true;
+      }
+    }
+    return builder.append(';').toString();
+  }
+
   @Override
   public List<Annotation> getAnnotations() {
     return getLastSimple().getAnnotations();
@@ -221,6 +298,12 @@ public class ClassType extends ReferenceType {
     return simples.stream().anyMatch(Annotated::isAnnotated);
   }
 
+  @Override
+  boolean isEqualTo(Type type) {
+    ClassType other = (ClassType) type;
+    return packageName.equals(other.packageName) && simples.equals(other.simples);
+  }
+
   public boolean isGeneric() {
     return simples.stream().anyMatch(Simple::isGeneric);
   }
@@ -243,4 +326,10 @@ public class ClassType extends ReferenceType {
     }
     return new ClassType(packageName, newSimples);
   }
+
+  @Override
+  public void share() {
+    super.share();
+    simples.forEach(Simple::share);
+  }
 }
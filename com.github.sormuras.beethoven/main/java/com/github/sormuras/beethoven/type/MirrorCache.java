@@ -0,0 +1,110 @@
+package com.github.sormuras.beethoven.type;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+
+/**
+ * Processing round scoped cache of types converted from type mirrors.
+ *
+ * <p>Mirrors are looked up by identity first. Declared types without any annotation, including
+ * their type arguments and enclosing types, are also looked up by their element and the {@link
+ * Types#isSameType(TypeMirror, TypeMirror)} equivalence, as equal types are often represented by
+ * distinct mirror instances. Error types are never cached.
+ *
+ * <p>Mirrors must not be retained across processing rounds: create a new cache per round or {@link
+ * #clear()} it at the start of each round. Instances are not thread-safe.
+ */
+public class MirrorCache {
+
+  private final Types types;
+  private final Map<TypeMirror, Type> identities = new IdentityHashMap<>();
+  private final Map<Element, List<Map.Entry<TypeMirror, Type>>> plains = new HashMap<>();
+  private long hits = 0;
+  private long misses = 0;
+
+  public MirrorCache(ProcessingEnvironment environment) {
+    this.types = environment.getTypeUtils();
+  }
+
+  /** Release all cached mirrors and types, hit and miss counters are kept. */
+  public void clear() {
+    identities.clear();
+    plains.clear();
+  }
+
+  public long getHits() {
+    return hits;
+  }
+
+  public long getMisses() {
+    return misses;
+  }
+
+  /** Return number of cached mirrors. */
+  public int size() {
+    return identities.size();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("MirrorCache [size=%d, hits=%d, misses=%d]", size(), hits, misses);
+  }
+
+  /** Return cached or newly converted {@code Type} of the given mirror. */
+  public Type type(TypeMirror mirror) {
+    Type type = identities.get(mirror);
+    if (type != null) {
+      hits++;
+      return type;
+    }
+    if (mirror.getKind() == TypeKind.ERROR) {
+      misses++;
+      return Type.type(mirror);
+    }
+    List<Map.Entry<TypeMirror, Type>> bucket = null;
+    if (isPlain(mirror)) {
+      Element element = ((DeclaredType) mirror).asElement();
+      bucket = plains.computeIfAbsent(element, key -> new ArrayList<>(1));
+      for (Map.Entry<TypeMirror, Type> entry : bucket) {
+        if (types.isSameType(entry.getKey(), mirror)) {
+          hits++;
+          identities.put(mirror, entry.getValue());
+          return entry.getValue();
+        }
+      }
+    }
+    misses++;
+    type = Type.type(mirror);
+    type.share();
+    identities.put(mirror, type);
+    if (bucket != null) {
+      bucket.add(new SimpleImmutableEntry<>(mirror, type));
+    }
+    return type;
+  }
+
+  /** Return {@code true}, if the mirror is a declared type without any annotation. */
+  private static boolean isPlain(TypeMirror mirror) {
+    if (mirror.getKind() != TypeKind.DECLARED || !mirror.getAnnotationMirrors().isEmpty()) {
+      return false;
+    }
+    DeclaredType declared = (DeclaredType) mirror;
+    for (TypeMirror argument : declared.getTypeArguments()) {
+      if (!isPlain(argument)) {
+        return false;
+      }
+    }
+    TypeMirror enclosing = declared.getEnclosingType();
+    return enclosing.getKind() == TypeKind.NONE || isPlain(enclosing);
+  }
+}
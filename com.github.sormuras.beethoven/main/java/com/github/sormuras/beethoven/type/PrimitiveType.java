@@ -82,13 +82,28 @@ public class PrimitiveType extends Type {
   }
 
   @Override
-  public String binary() {
+  public Listing apply(Listing listing) {
+    return applyAnnotations(listing).add(binary());
+  }
+
+  @Override
+  String computeBinary() {
     return getType().getTypeName();
   }
 
   @Override
-  public Listing apply(Listing listing) {
-    return applyAnnotations(listing).add(binary());
+  String computeDescriptor() {
+    return String.valueOf(primitive.binary);
+  }
+
+  @Override
+  int computeHashCode() {
+    return 31 * primitive.ordinal() + getAnnotations().hashCode();
+  }
+
+  @Override
+  String computeSignature() {
+    return descriptor();
   }
 
   public Class<?> getType() {
@@ -99,6 +114,12 @@ public class PrimitiveType extends Type {
     return primitive.binary;
   }
 
+  @Override
+  boolean isEqualTo(Type type) {
+    PrimitiveType other = (PrimitiveType) type;
+    return primitive == other.primitive && getAnnotations().equals(other.getAnnotations());
+  }
+
   public ClassType box() {
     return ClassType.type(primitive.wrapper).annotated(i -> getAnnotations());
   }
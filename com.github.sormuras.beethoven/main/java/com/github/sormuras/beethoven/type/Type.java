@@ -83,7 +83,7 @@ public abstract class Type extends Annotated {
 
       @Override
       public Annotation visitEnumConstant(VariableElement element, String name) {
-        annotation.addMember(name, l -> l.add(Name.name(element)));
+        annotation.addObject(name, Name.name(element));
         return annotation;
       }
 
@@ -374,6 +374,25 @@ public abstract class Type extends Annotated {
     }
   }
 
+  /**
+   * Unannotated types of classes, computed once per class.
+   *
+   * <p>Types are immutable and only refer to names, caching them neither pins classes nor their
+   * loaders.
+   */
+  private static final ClassValue<Type> TYPES =
+      new ClassValue<Type>() {
+        @Override
+        protected Type computeValue(Class<?> type) {
+          Type result = typeOf(type);
+          result.share();
+          return result;
+        }
+      };
+
+  /** Stateless visitor converting mirrors, see {@link #type(TypeMirror)}. */
+  private static final Mirrors.TypeVisitor MIRROR_VISITOR = new Mirrors.TypeVisitor();
+
   /** Cast/convert object to type instance. */
   public static Type cast(Object any) {
     if (any == null) {
@@ -394,6 +413,19 @@ public abstract class Type extends Annotated {
     throw new IllegalArgumentException("Can't cast/convert " + any.getClass() + " to Type!");
   }
 
+  /**
+   * Parse type source text, like {@code java.util.List<? extends @A java.lang.Number>[]}.
+   *
+   * <p>Classes are neither loaded nor resolved, see {@link TypeParser} for the naming conventions
+   * used to tell packages, classes and type variables apart. Parsed types are cached by their
+   * source text and shared, their annotations must not be modified.
+   *
+   * @throws IllegalArgumentException if the text isn't a valid type
+   */
+  public static Type parse(CharSequence source) {
+    return TypeParser.parse(source);
+  }
+
   /** Create {@code Type} based on {@code AnnotatedType} instance. */
   public static Type type(AnnotatedType annotatedType) {
     if (annotatedType instanceof AnnotatedArrayType) {
@@ -412,8 +444,13 @@ public abstract class Type extends Annotated {
     return withAnnotations(type(annotatedType.getType()), Annotation.annotations(annotatedType));
   }
 
-  /** Create {@code Type} based on {@code Class} instance. */
+  /** Return cached {@code Type} based on {@code Class} instance. */
   public static Type type(Class<?> classType) {
+    return TYPES.get(classType);
+  }
+
+  /** Create {@code Type} based on {@code Class} instance. */
+  private static Type typeOf(Class<?> classType) {
     // handle primitive types like: boolean, byte ... short, void included
     if (classType.isPrimitive()) {
       if (classType == void.class) {
@@ -455,8 +492,7 @@ public abstract class Type extends Annotated {
 
   /** Create {@code Type} based on {@code javax.lang.model.type.TypeMirror} instance. */
   public static Type type(javax.lang.model.type.TypeMirror mirror) {
-    Mirrors.TypeVisitor visitor = new Mirrors.TypeVisitor();
-    return mirror.accept(visitor, null);
+    return mirror.accept(MIRROR_VISITOR, null);
   }
 
   /** Create list of types based on variable array of {@code java.lang.reflect.Type}s. */
@@ -480,6 +516,15 @@ public abstract class Type extends Annotated {
     return (T) type.annotated(i -> emptyList());
   }
 
+  /** Lazily computed structural hash code, {@code 0} means not computed yet. */
+  private int hash;
+
+  /** Lazily computed names, {@code null} means not computed yet. */
+  private String binary;
+
+  private String descriptor;
+  private String signature;
+
   /** Initialize this {@code Type} instance. */
   Type(List<Annotation> annotations) {
     super(annotations);
@@ -489,13 +534,59 @@ public abstract class Type extends Annotated {
   public abstract Type annotated(IntFunction<List<Annotation>> annotationsSupplier);
 
   /**
-   * Return the binary name of this type as a String.
+   * Return the binary name of this type as a String, computed once.
    *
    * @return (binary) class name
    * @see Class#getName()
    * @see Class#forName(String)
    */
-  public abstract String binary();
+  public final String binary() {
+    String result = binary;
+    if (result == null) {
+      result = computeBinary();
+      binary = result;
+    }
+    return result;
+  }
+
+  /** Compute the binary name of this type. */
+  abstract String computeBinary();
+
+  /** Compute the field descriptor of this type. */
+  abstract String computeDescriptor();
+
+  /** Compute the structural hash code of this type, without rendering any source. */
+  abstract int computeHashCode();
+
+  /** Compute the generic signature of this type. */
+  abstract String computeSignature();
+
+  /**
+   * Return the JVM field descriptor of this type, like {@code Ljava/util/List;}, computed once.
+   *
+   * @see <a href="https://docs.oracle.com/javase/specs/jvms/se8/html/jvms-4.html#jvms-4.3.2">JVMS
+   *     4.3.2</a>
+   */
+  public final String descriptor() {
+    String result = descriptor;
+    if (result == null) {
+      result = computeDescriptor();
+      descriptor = result;
+    }
+    return result;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null || getClass() != obj.getClass()) {
+      return false;
+    }
+    Type other = (Type) obj;
+    return hashCode() == other.hashCode() && isEqualTo(other);
+  }
 
   public int getAnnotationsIndex() {
     return 0;
@@ -506,6 +597,20 @@ public abstract class Type extends Annotated {
     return ElementType.TYPE_USE;
   }
 
+  /** Return the structural hash code, computed once as all types are immutable. */
+  @Override
+  public int hashCode() {
+    int result = hash;
+    if (result == 0) {
+      result = computeHashCode();
+      hash = result;
+    }
+    return result;
+  }
+
+  /** Compare this type with another type of the same class structurally. */
+  abstract boolean isEqualTo(Type other);
+
   public boolean isJavaLangObject() {
     return false;
   }
@@ -513,4 +618,20 @@ public abstract class Type extends Annotated {
   public boolean isVoid() {
     return false;
   }
+
+  /**
+   * Return the JVM generic signature of this type, like {@code Ljava/util/List<TT;>;}, computed
+   * once.
+   *
+   * @see <a href="https://docs.oracle.com/javase/specs/jvms/se8/html/jvms-4.html#jvms-4.7.9.1">JVMS
+   *     4.7.9.1</a>
+   */
+  public final String signature() {
+    String result = signature;
+    if (result == null) {
+      result = computeSignature();
+      signature = result;
+    }
+    return result;
+  }
 }
@@ -45,6 +45,17 @@ public class TypeArgument implements Listable {
     return getArgument().apply(listing);
   }
 
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null || getClass() != obj.getClass()) {
+      return false;
+    }
+    return getArgument().equals(((TypeArgument) obj).getArgument());
+  }
+
   public Type getArgument() {
     return reference != null ? reference : wildcard;
   }
@@ -57,6 +68,16 @@ public class TypeArgument implements Listable {
     return wildcard;
   }
 
+  @Override
+  public int hashCode() {
+    return getArgument().hashCode();
+  }
+
+  /** Return the generic signature of the argument. */
+  public String signature() {
+    return getArgument().signature();
+  }
+
   @Override
   public String toString() {
     return "TypeArgument{" + getArgument() + "}";
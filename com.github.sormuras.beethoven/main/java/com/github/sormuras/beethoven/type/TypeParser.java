@@ -0,0 +1,307 @@
+package com.github.sormuras.beethoven.type;
+
+import static java.util.Collections.emptyList;
+
+import com.github.sormuras.beethoven.Annotation;
+import com.github.sormuras.beethoven.Name;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Single-pass parser of type source text, like {@code java.util.Map.Entry<K, ? super @A V[]>}.
+ *
+ * <p>No class is loaded, names are classified by convention instead: the first identifier
+ * starting with an upper case letter denotes the top level class, all identifiers before it name
+ * the package. An unqualified identifier consisting of a single upper case letter, optionally
+ * followed by digits, denotes a type variable. Annotations are marker annotations, named the same
+ * way as types. An ellipsis is parsed as an additional array dimension, it is only allowed as the
+ * final dimension of the top level type.
+ *
+ * @see <a href="https://docs.oracle.com/javase/specs/jls/se8/html/jls-4.html">JLS 4</a>
+ */
+final class TypeParser {
+
+  private static final int MAX_CACHED_TYPES = 1024;
+
+  private static final Map<String, Type> CACHE =
+      Collections.synchronizedMap(
+          new LinkedHashMap<String, Type>(64, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Type> eldest) {
+              return size() > MAX_CACHED_TYPES;
+            }
+          });
+
+  /** Return cached or newly parsed type. */
+  static Type parse(CharSequence source) {
+    String key = source.toString();
+    Type type = CACHE.get(key);
+    if (type == null) {
+      type = new TypeParser(key).parseSource();
+      type.share();
+      CACHE.put(key, type);
+    }
+    return type;
+  }
+
+  private static boolean isTypeVariable(String identifier) {
+    if (!Character.isUpperCase(identifier.charAt(0))) {
+      return false;
+    }
+    for (int i = 1; i < identifier.length(); i++) {
+      if (!Character.isDigit(identifier.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private final String source;
+  private int index = 0;
+  private int depth = 0;
+
+  private TypeParser(String source) {
+    this.source = source;
+  }
+
+  private List<Annotation> annotations() {
+    skipWhitespace();
+    if (!peek('@')) {
+      return emptyList();
+    }
+    List<Annotation> annotations = new ArrayList<>();
+    while (accept('@')) {
+      List<String> identifiers = new ArrayList<>();
+      identifiers.add(identifier());
+      while (peek('.')) {
+        index++;
+        identifiers.add(identifier());
+      }
+      annotations.add(Annotation.annotation(name(identifiers)));
+      skipWhitespace();
+      if (peek('(')) {
+        throw error("annotation arguments are not supported");
+      }
+    }
+    return annotations;
+  }
+
+  /** Skip whitespace and consume the expected character, if present. */
+  private boolean accept(char expected) {
+    skipWhitespace();
+    if (peek(expected)) {
+      index++;
+      return true;
+    }
+    return false;
+  }
+
+  private Type arrayOrVarargs(Type component) {
+    List<ArrayType.Dimension> dimensions = null;
+    while (true) {
+      int mark = index;
+      List<Annotation> annotations = annotations();
+      if (accept('[')) {
+        expect(']');
+      } else if (source.startsWith("...", skipWhitespace())) {
+        if (depth > 0) {
+          throw error("ellipsis is not allowed in type arguments");
+        }
+        index += 3;
+        if (skipWhitespace() != source.length()) {
+          throw error("ellipsis must be the final dimension");
+        }
+      } else {
+        index = mark;
+        break;
+      }
+      if (dimensions == null) {
+        dimensions = new ArrayList<>();
+      }
+      dimensions.add(new ArrayType.Dimension(annotations));
+    }
+    return dimensions == null ? component : ArrayType.array(component, dimensions);
+  }
+
+  private ClassType classType(List<Annotation> annotations, String first) {
+    List<String> packageNames = new ArrayList<>();
+    String current = first;
+    // package names, up to the first capitalized identifier
+    while (!Character.isUpperCase(current.charAt(0))) {
+      int mark = index;
+      if (!accept('.') || source.startsWith("..", index)) {
+        index = mark;
+        break;
+      }
+      packageNames.add(current);
+      List<Annotation> more = annotations();
+      if (!more.isEmpty()) {
+        annotations = concat(annotations, more);
+      }
+      current = identifier();
+    }
+    List<ClassType.Simple> simples = new ArrayList<>();
+    while (true) {
+      List<TypeArgument> arguments = accept('<') ? typeArguments() : emptyList();
+      simples.add(new ClassType.Simple(annotations, current, arguments));
+      int mark = index;
+      if (!accept('.') || source.startsWith("..", index)) {
+        index = mark;
+        break;
+      }
+      annotations = annotations();
+      current = identifier();
+    }
+    return new ClassType(String.join(".", packageNames), simples);
+  }
+
+  private List<Annotation> concat(List<Annotation> head, List<Annotation> tail) {
+    if (head.isEmpty()) {
+      return tail;
+    }
+    List<Annotation> list = new ArrayList<>(head);
+    list.addAll(tail);
+    return list;
+  }
+
+  private IllegalArgumentException error(String message) {
+    return new IllegalArgumentException(
+        String.format("%s at index %d: `%s`", message, index, source));
+  }
+
+  private void expect(char expected) {
+    if (!accept(expected)) {
+      throw error("expected `" + expected + "`");
+    }
+  }
+
+  private String identifier() {
+    skipWhitespace();
+    int start = index;
+    if (index >= source.length() || !Character.isJavaIdentifierStart(source.charAt(index))) {
+      throw error("expected identifier");
+    }
+    index++;
+    while (index < source.length() && Character.isJavaIdentifierPart(source.charAt(index))) {
+      index++;
+    }
+    return source.substring(start, index);
+  }
+
+  /** Skip whitespace and consume the expected keyword, if present and not an identifier prefix. */
+  private boolean keyword(String expected) {
+    int end = skipWhitespace() + expected.length();
+    if (!source.startsWith(expected, index)) {
+      return false;
+    }
+    if (end < source.length() && Character.isJavaIdentifierPart(source.charAt(end))) {
+      return false;
+    }
+    index = end;
+    return true;
+  }
+
+  private Name name(List<String> identifiers) {
+    int packageLevel = 0;
+    while (packageLevel < identifiers.size() - 1
+        && !Character.isUpperCase(identifiers.get(packageLevel).charAt(0))) {
+      packageLevel++;
+    }
+    return Name.name(packageLevel, identifiers);
+  }
+
+  private Type parseSource() {
+    Type type = type(annotations());
+    if (skipWhitespace() != source.length()) {
+      throw error("unexpected trailing characters");
+    }
+    return type;
+  }
+
+  private boolean peek(char expected) {
+    return index < source.length() && source.charAt(index) == expected;
+  }
+
+  private ReferenceType referenceType(List<Annotation> annotations) {
+    Type type = type(annotations);
+    if (!(type instanceof ReferenceType)) {
+      throw error("expected reference type, but got: " + type.list());
+    }
+    return (ReferenceType) type;
+  }
+
+  /** Skip whitespace and return the current index. */
+  private int skipWhitespace() {
+    while (index < source.length() && Character.isWhitespace(source.charAt(index))) {
+      index++;
+    }
+    return index;
+  }
+
+  private Type type(List<Annotation> annotations) {
+    String identifier = identifier();
+    Type type;
+    switch (identifier) {
+      case "boolean":
+      case "byte":
+      case "char":
+      case "double":
+      case "float":
+      case "int":
+      case "long":
+      case "short":
+        type = PrimitiveType.primitive(annotations, identifier.toUpperCase(Locale.ROOT));
+        break;
+      case "void":
+        if (!annotations.isEmpty()) {
+          throw error("void can't be annotated");
+        }
+        return VoidType.INSTANCE;
+      default:
+        int mark = index;
+        boolean qualified = accept('.') && !source.startsWith("..", index);
+        index = mark;
+        if (!qualified && isTypeVariable(identifier) && !accept('<')) {
+          index = mark;
+          type = TypeVariable.variable(annotations, identifier);
+        } else {
+          index = mark;
+          type = classType(annotations, identifier);
+        }
+    }
+    return arrayOrVarargs(type);
+  }
+
+  private TypeArgument typeArgument() {
+    List<Annotation> annotations = annotations();
+    if (!accept('?')) {
+      return TypeArgument.argument(referenceType(annotations));
+    }
+    if (keyword("extends")) {
+      ReferenceType bound = referenceType(annotations());
+      return TypeArgument.argument(WildcardType.extend(annotations, bound));
+    }
+    if (keyword("super")) {
+      ReferenceType bound = referenceType(annotations());
+      return TypeArgument.argument(WildcardType.supertype(annotations, bound));
+    }
+    return TypeArgument.argument(WildcardType.wildcard(annotations));
+  }
+
+  private List<TypeArgument> typeArguments() {
+    List<TypeArgument> arguments = new ArrayList<>();
+    depth++;
+    do {
+      arguments.add(typeArgument());
+    } while (accept(','));
+    expect('>');
+    depth--;
+    return arguments;
+  }
+}
@@ -0,0 +1,105 @@
+package com.github.sormuras.beethoven.type;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Weak table of canonical types, one shared instance per structurally equal type.
+ *
+ * <p>Canonical types are composed of canonical types, i.e. type arguments, array component types
+ * and wildcard bounds are canonicalized as well. Equal canonical types are identical and may be
+ * compared by reference. Entries are removed as soon as their canonical type is no longer
+ * referenced elsewhere. The given types are left untouched: canonical types are copies, unless the
+ * given type is already {@link Type#isShared() shared} and has no components.
+ *
+ * <p>Annotations attached to a canonical type must not be modified afterwards, as they take part
+ * in the structural hash code of the type.
+ */
+public class TypeTable {
+
+  private final Map<Type, WeakReference<Type>> table = new WeakHashMap<>();
+
+  /** Return the canonical instance of a type structurally equal to the given one. */
+  @SuppressWarnings("unchecked")
+  public synchronized <T extends Type> T canonical(T type) {
+    Type canonical = lookup(type);
+    if (canonical == null) {
+      canonical = compose(type);
+      canonical.share();
+      table.put(canonical, new WeakReference<>(canonical));
+    }
+    return (T) canonical;
+  }
+
+  /** Return canonical parameterized class type, like {@code List<String>}. */
+  public ClassType parameterized(Class<?> raw, java.lang.reflect.Type... arguments) {
+    return canonical(ClassType.parameterized(raw, arguments));
+  }
+
+  /** Return number of canonical types currently held. */
+  public synchronized int size() {
+    return table.size();
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "TypeTable [size=" + table.size() + "]";
+  }
+
+  /** Return canonical type based on the given reflected type. */
+  public Type type(java.lang.reflect.Type type) {
+    return canonical(Type.type(type));
+  }
+
+  private TypeArgument argument(TypeArgument argument) {
+    WildcardType wildcard = argument.getWildcard();
+    if (wildcard != null) {
+      return new TypeArgument(canonical(wildcard));
+    }
+    return new TypeArgument(canonical(argument.getReference()));
+  }
+
+  /** Create new type composed of canonical component types. */
+  private Type compose(Type type) {
+    if (type instanceof ClassType) {
+      ClassType classType = (ClassType) type;
+      if (!classType.isGeneric() && classType.isShared()) {
+        return classType;
+      }
+      List<ClassType.Simple> simples = new ArrayList<>();
+      for (ClassType.Simple simple : classType.getSimples()) {
+        List<TypeArgument> arguments = new ArrayList<>();
+        simple.getTypeArguments().forEach(argument -> arguments.add(argument(argument)));
+        simples.add(new ClassType.Simple(simple.getAnnotations(), simple.getName(), arguments));
+      }
+      return new ClassType(classType.getPackageName(), simples);
+    }
+    if (type instanceof ArrayType) {
+      ArrayType arrayType = (ArrayType) type;
+      List<ArrayType.Dimension> dimensions = new ArrayList<>();
+      for (ArrayType.Dimension dimension : arrayType.getDimensions()) {
+        dimensions.add(new ArrayType.Dimension(dimension.getAnnotations()));
+      }
+      return new ArrayType(canonical(arrayType.getComponentType()), dimensions);
+    }
+    if (type instanceof WildcardType) {
+      WildcardType wildcard = (WildcardType) type;
+      ReferenceType boundExtends = canonical(wildcard.getBoundExtends());
+      ReferenceType boundSuper = wildcard.getBoundSuper().map(this::canonical).orElse(null);
+      return new WildcardType(wildcard.getAnnotations(), boundExtends, boundSuper);
+    }
+    if (type.isShared() || type instanceof VoidType) {
+      return type;
+    }
+    // primitive type or type variable
+    return type.annotated(i -> type.getAnnotations());
+  }
+
+  private Type lookup(Type type) {
+    WeakReference<Type> reference = table.get(type);
+    return reference == null ? null : reference.get();
+  }
+}
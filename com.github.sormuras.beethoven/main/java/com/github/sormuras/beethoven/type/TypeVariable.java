@@ -44,10 +44,25 @@ public class TypeVariable extends ReferenceType {
   }
 
   @Override
-  public String binary() {
+  String computeBinary() {
     throw new UnsupportedOperationException("Type variables have no binary class name.");
   }
 
+  @Override
+  String computeDescriptor() {
+    throw new UnsupportedOperationException("Type variables have no descriptor, erasure unknown.");
+  }
+
+  @Override
+  int computeHashCode() {
+    return 31 * identifier.hashCode() + getAnnotations().hashCode();
+  }
+
+  @Override
+  String computeSignature() {
+    return 'T' + identifier + ';';
+  }
+
   @Override
   public ElementType getAnnotationsTarget() {
     return ElementType.TYPE_PARAMETER;
@@ -56,4 +71,10 @@ public class TypeVariable extends ReferenceType {
   public String getIdentifier() {
     return identifier;
   }
+
+  @Override
+  boolean isEqualTo(Type type) {
+    TypeVariable other = (TypeVariable) type;
+    return identifier.equals(other.identifier) && getAnnotations().equals(other.getAnnotations());
+  }
 }
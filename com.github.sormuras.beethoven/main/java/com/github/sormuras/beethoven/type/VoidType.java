@@ -30,10 +30,25 @@ public class VoidType extends Type {
   }
 
   @Override
-  public String binary() {
+  String computeBinary() {
     return "void";
   }
 
+  @Override
+  String computeDescriptor() {
+    return "V";
+  }
+
+  @Override
+  int computeHashCode() {
+    return "void".hashCode();
+  }
+
+  @Override
+  String computeSignature() {
+    return "V";
+  }
+
   @Override
   public ElementType getAnnotationsTarget() {
     return null;
@@ -44,6 +59,11 @@ public class VoidType extends Type {
     return false;
   }
 
+  @Override
+  boolean isEqualTo(Type other) {
+    return true;
+  }
+
   @Override
   public boolean isVoid() {
     return true;
@@ -5,6 +5,7 @@ import com.github.sormuras.beethoven.Listing;
 import java.lang.annotation.ElementType;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.function.IntFunction;
 
@@ -72,10 +73,31 @@ public class WildcardType extends Type {
   }
 
   @Override
-  public String binary() {
+  String computeBinary() {
     throw new UnsupportedOperationException("Wildcards have no binary class name.");
   }
 
+  @Override
+  String computeDescriptor() {
+    throw new UnsupportedOperationException("Wildcards have no descriptor.");
+  }
+
+  @Override
+  int computeHashCode() {
+    int result = getAnnotations().hashCode();
+    result = 31 * result + boundExtends.hashCode();
+    return 31 * result + Objects.hashCode(boundSuper);
+  }
+
+  /** Return the type argument signature, like {@code *}, {@code +Ljava/lang/Runnable;}. */
+  @Override
+  String computeSignature() {
+    if (!boundExtends.isJavaLangObject()) {
+      return '+' + boundExtends.signature();
+    }
+    return boundSuper == null ? "*" : '-' + boundSuper.signature();
+  }
+
   @Override
   public ElementType getAnnotationsTarget() {
     return ElementType.TYPE_PARAMETER;
@@ -88,4 +110,21 @@ public class WildcardType extends Type {
   public Optional<ReferenceType> getBoundSuper() {
     return Optional.ofNullable(boundSuper);
   }
+
+  @Override
+  boolean isEqualTo(Type type) {
+    WildcardType other = (WildcardType) type;
+    return boundExtends.equals(other.boundExtends)
+        && Objects.equals(boundSuper, other.boundSuper)
+        && getAnnotations().equals(other.getAnnotations());
+  }
+
+  @Override
+  public void share() {
+    super.share();
+    boundExtends.share();
+    if (boundSuper != null) {
+      boundSuper.share();
+    }
+  }
 }
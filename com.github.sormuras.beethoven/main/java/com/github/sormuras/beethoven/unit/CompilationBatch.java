@@ -0,0 +1,183 @@
+package com.github.sormuras.beethoven.unit;
+
+import static java.util.Collections.emptyList;
+
+import com.github.sormuras.beethoven.Compilation;
+import com.github.sormuras.beethoven.CompilationResult;
+import com.github.sormuras.beethoven.Name;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Many compilation units compiled together in a single compiler task.
+ *
+ * <p>All classes are defined by one loader. Declarations and units are mapped by identity, as
+ * they are mutable and compare by their rendered source.
+ */
+public class CompilationBatch {
+
+  /** Thrown if the batch failed to compile, carrying the diagnostics attributed to units. */
+  public static class Failure extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Map<CompilationUnit, List<Diagnostic<? extends JavaFileObject>>>
+        diagnostics;
+    private final transient List<Diagnostic<? extends JavaFileObject>> unattributed;
+
+    Failure(
+        String message,
+        Map<CompilationUnit, List<Diagnostic<? extends JavaFileObject>>> diagnostics,
+        List<Diagnostic<? extends JavaFileObject>> unattributed) {
+      super(message);
+      this.diagnostics = diagnostics;
+      this.unattributed = Collections.unmodifiableList(unattributed);
+    }
+
+    /** Return diagnostics, like errors, reported for the given unit. */
+    public List<Diagnostic<? extends JavaFileObject>> getDiagnostics(CompilationUnit unit) {
+      return Collections.unmodifiableList(diagnostics.getOrDefault(unit, emptyList()));
+    }
+
+    /** Return diagnostics not attributed to any unit of the batch. */
+    public List<Diagnostic<? extends JavaFileObject>> getUnattributedDiagnostics() {
+      return unattributed;
+    }
+  }
+
+  /** Compile all units using a short-lived session. */
+  public static CompilationBatch compile(Collection<CompilationUnit> units) {
+    try (Compilation.Session session = new Compilation.Session()) {
+      return compile(session, null, emptyList(), units);
+    }
+  }
+
+  /**
+   * Compile all units in a single task of the given session.
+   *
+   * @throws Failure if compilation failed
+   */
+  public static CompilationBatch compile(
+      Compilation.Session session,
+      ClassLoader parent,
+      List<String> options,
+      Collection<CompilationUnit> units) {
+    long start = System.nanoTime();
+    Map<JavaFileObject, CompilationUnit> sources = new LinkedHashMap<>();
+    for (CompilationUnit unit : units) {
+      sources.put(unit.toJavaFileObject(), unit);
+    }
+    Duration renderDuration = Duration.ofNanos(System.nanoTime() - start);
+    List<JavaFileObject> files = new ArrayList<>(sources.keySet());
+    CompilationResult result = session.call(options, emptyList(), files);
+    Map<CompilationUnit, List<Diagnostic<? extends JavaFileObject>>> diagnostics =
+        new IdentityHashMap<>();
+    List<Diagnostic<? extends JavaFileObject>> unattributed = new ArrayList<>();
+    for (Diagnostic<? extends JavaFileObject> diagnostic : result.getDiagnostics()) {
+      CompilationUnit unit = sources.get(diagnostic.getSource());
+      if (unit == null) {
+        unattributed.add(diagnostic);
+        continue;
+      }
+      diagnostics.computeIfAbsent(unit, key -> new ArrayList<>()).add(diagnostic);
+    }
+    if (!result.isSuccess()) {
+      StringBuilder message = new StringBuilder("Compilation failed!");
+      diagnostics.forEach((unit, list) -> message.append(' ').append(unit.toURI()).append(list));
+      if (!unattributed.isEmpty()) {
+        message.append(' ').append(unattributed);
+      }
+      throw new Failure(message.toString(), diagnostics, unattributed);
+    }
+    ClassLoader loader = parent != null ? parent : Compilation.class.getClassLoader();
+    loader = new Compilation.SecureLoader(loader, result.getClasses()::get);
+    Map<TypeDeclaration, Class<?>> classes = new IdentityHashMap<>();
+    try {
+      for (CompilationUnit unit : units) {
+        for (TypeDeclaration declaration : unit.getDeclarations()) {
+          load(loader, declaration, classes);
+        }
+      }
+    } catch (ClassNotFoundException e) {
+      throw new AssertionError("compiled class not found", e);
+    }
+    return new CompilationBatch(loader, classes, diagnostics, result, renderDuration);
+  }
+
+  /** Return binary name of the given type declaration, like {@code a.b.Outer$Inner}. */
+  static String binaryName(TypeDeclaration declaration) {
+    Name name = declaration.toName();
+    String packageName = name.packageName();
+    String simpleNames = name.simpleNames().replace('.', '$');
+    return packageName.isEmpty() ? simpleNames : packageName + '.' + simpleNames;
+  }
+
+  private static void load(
+      ClassLoader loader, TypeDeclaration declaration, Map<TypeDeclaration, Class<?>> classes)
+      throws ClassNotFoundException {
+    classes.put(declaration, loader.loadClass(binaryName(declaration)));
+    for (TypeDeclaration nested : declaration.getDeclarations()) {
+      load(loader, nested, classes);
+    }
+  }
+
+  private final ClassLoader classLoader;
+  private final Map<TypeDeclaration, Class<?>> classes;
+  private final Map<CompilationUnit, List<Diagnostic<? extends JavaFileObject>>> diagnostics;
+  private final CompilationResult result;
+  private final Duration renderDuration;
+
+  private CompilationBatch(
+      ClassLoader classLoader,
+      Map<TypeDeclaration, Class<?>> classes,
+      Map<CompilationUnit, List<Diagnostic<? extends JavaFileObject>>> diagnostics,
+      CompilationResult result,
+      Duration renderDuration) {
+    this.classLoader = classLoader;
+    this.classes = Collections.unmodifiableMap(classes);
+    this.diagnostics = diagnostics;
+    this.result = result;
+    this.renderDuration = renderDuration;
+  }
+
+  /** Return class compiled from the given type declaration. */
+  public Class<?> getClass(TypeDeclaration declaration) {
+    Class<?> type = classes.get(declaration);
+    if (type == null) {
+      throw new IllegalArgumentException("declaration not part of batch: " + declaration.getName());
+    }
+    return type;
+  }
+
+  public ClassLoader getClassLoader() {
+    return classLoader;
+  }
+
+  /** Return unmodifiable identity map of all, including nested, declarations to their classes. */
+  public Map<TypeDeclaration, Class<?>> getClasses() {
+    return classes;
+  }
+
+  /** Return diagnostics, like warnings, reported for the given unit. */
+  public List<Diagnostic<? extends JavaFileObject>> getDiagnostics(CompilationUnit unit) {
+    return Collections.unmodifiableList(diagnostics.getOrDefault(unit, emptyList()));
+  }
+
+  /** Return wall time spent rendering all units to sources. */
+  public Duration getRenderDuration() {
+    return renderDuration;
+  }
+
+  /** Return result of the compiler task, including phase timings. */
+  public CompilationResult getResult() {
+    return result;
+  }
+}
@@ -3,6 +3,7 @@ package com.github.sormuras.beethoven.unit;
 import com.github.sormuras.beethoven.Compilation;
 import com.github.sormuras.beethoven.Listing;
 import com.github.sormuras.beethoven.Name;
+import com.github.sormuras.beethoven.StreamingListing;
 import com.github.sormuras.beethoven.Style;
 import java.net.URI;
 import java.util.ArrayList;
@@ -12,6 +13,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import javax.lang.model.element.Modifier;
 import javax.tools.JavaFileObject;
@@ -74,6 +76,17 @@ public class CompilationUnit implements DeclarationContainer {
     }
   }
 
+  /**
+   * Return factory creating instances by invoking the constructor of the given parameter types.
+   *
+   * <p>The unit is compiled once per fingerprint of its rendered source, units rendering the same
+   * source share the compiled class and its factories. A modified unit is compiled again. The
+   * factory invokes a constructor method handle, arguments are passed as an object array.
+   */
+  public <T> Function<Object[], T> factory(Class<T> clazz, Class<?>... parameterTypes) {
+    return InstanceFactories.function(this, clazz, parameterTypes);
+  }
+
   /** Compile and invoke "public static void main(String[] args)". */
   public void launch(String... args) {
     try {
@@ -142,6 +155,15 @@ public class CompilationUnit implements DeclarationContainer {
     return list(new Listing("  ", lineSeparator, this::style));
   }
 
+  @Override
+  public void list(Appendable target) {
+    list(new StreamingListing(target, this::style));
+  }
+
+  public void list(Appendable target, String lineSeparator) {
+    list(new StreamingListing(target, "  ", lineSeparator, this::style));
+  }
+
   @Override
   public boolean isEmpty() {
     return getDeclarations().isEmpty()
@@ -169,6 +191,15 @@ public class CompilationUnit implements DeclarationContainer {
     return style;
   }
 
+  /**
+   * Return supplier creating instances by invoking the no-arg constructor.
+   *
+   * @see #factory(Class, Class[])
+   */
+  public <T> Supplier<T> supplier(Class<T> clazz) {
+    return InstanceFactories.supplier(this, clazz);
+  }
+
   public URI toURI() {
     TypeDeclaration declaration = getEponymousDeclaration().orElseThrow(IllegalStateException::new);
     return getPackageDeclaration().toUri(declaration.getName() + ".java");
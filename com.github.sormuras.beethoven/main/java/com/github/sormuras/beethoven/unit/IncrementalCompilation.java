@@ -0,0 +1,193 @@
+package com.github.sormuras.beethoven.unit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptySet;
+
+import com.github.sormuras.beethoven.Compilation;
+import com.github.sormuras.beethoven.CompilationResult;
+import com.github.sormuras.beethoven.Listing;
+import com.github.sormuras.beethoven.Name;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.tools.JavaFileObject;
+
+/**
+ * Recompiles only changed compilation units and the units depending on them.
+ *
+ * <p>Each unit is identified by its URI and fingerprinted by its rendered source. Dependencies are
+ * derived from the names collected while rendering, see {@link Listing#getCollectedNames()}: a
+ * unit depends on another unit, if it references a type declared by that unit. References hidden
+ * in plain text, like a statement {@code "return Other.VALUE"}, aren't tracked. Unchanged units
+ * are not recompiled, their cached class bytes are put on the in-memory class path instead.
+ */
+public class IncrementalCompilation {
+
+  /** Compiled state of a single unit. */
+  private static final class Entry {
+
+    private final byte[] fingerprint;
+    private final Set<String> declared;
+    private final Set<String> referenced;
+    private final Map<String, byte[]> classes = new TreeMap<>();
+
+    Entry(byte[] fingerprint, Set<String> declared, Set<String> referenced) {
+      this.fingerprint = fingerprint;
+      this.declared = declared;
+      this.referenced = referenced;
+    }
+  }
+
+  /** Rendered unit. */
+  private static final class Rendered {
+
+    private final JavaFileObject file;
+    private final Entry entry;
+
+    Rendered(JavaFileObject file, Entry entry) {
+      this.file = file;
+      this.entry = entry;
+    }
+  }
+
+  private static void declare(TypeDeclaration declaration, Set<String> declared) {
+    declared.add(declaration.toName().canonical());
+    for (TypeDeclaration nested : declaration.getDeclarations()) {
+      declare(nested, declared);
+    }
+  }
+
+  private static Rendered render(CompilationUnit unit) {
+    Listing listing = new Listing(unit::style);
+    String source = unit.list(listing);
+    Set<String> declared = new HashSet<>();
+    for (TypeDeclaration declaration : unit.getDeclarations()) {
+      declare(declaration, declared);
+    }
+    Set<String> referenced = new HashSet<>();
+    for (Name name : listing.getCollectedNames()) {
+      for (Name current = name; ; current = current.enclosing()) {
+        referenced.add(current.canonical());
+        if (!current.isEnclosed()) {
+          break;
+        }
+      }
+    }
+    byte[] fingerprint;
+    try {
+      fingerprint = MessageDigest.getInstance("SHA-256").digest(source.getBytes(UTF_8));
+    } catch (NoSuchAlgorithmException e) {
+      throw new AssertionError("SHA-256 not available", e);
+    }
+    JavaFileObject file = Compilation.source(unit.toURI(), source);
+    return new Rendered(file, new Entry(fingerprint, declared, referenced));
+  }
+
+  private final Compilation.Session session;
+  private final List<String> options;
+  private final Map<String, Entry> entries = new HashMap<>();
+  private Set<String> lastRecompiled = emptySet();
+
+  public IncrementalCompilation(Compilation.Session session) {
+    this(session, emptyList());
+  }
+
+  public IncrementalCompilation(Compilation.Session session, List<String> options) {
+    this.session = session;
+    this.options = options;
+  }
+
+  /**
+   * Compile changed and dependent units and return a fresh loader for the classes of all units.
+   *
+   * <p>Units not passed anymore are dropped, units depending on them are recompiled.
+   */
+  public synchronized ClassLoader compile(ClassLoader parent, Collection<CompilationUnit> units) {
+    Map<String, Rendered> rendered = new LinkedHashMap<>();
+    for (CompilationUnit unit : units) {
+      rendered.put(unit.toURI().toString(), render(unit));
+    }
+    // collect changed, new and removed units and the names they declare(d)
+    Set<String> dirty = new LinkedHashSet<>();
+    Set<String> dirtyNames = new HashSet<>();
+    for (Map.Entry<String, Entry> old : entries.entrySet()) {
+      Entry entry = old.getValue();
+      Rendered current = rendered.get(old.getKey());
+      if (current == null || !Arrays.equals(entry.fingerprint, current.entry.fingerprint)) {
+        dirtyNames.addAll(entry.declared);
+      }
+    }
+    rendered.forEach(
+        (uri, current) -> {
+          Entry old = entries.get(uri);
+          if (old == null || !Arrays.equals(old.fingerprint, current.entry.fingerprint)) {
+            dirty.add(uri);
+            dirtyNames.addAll(current.entry.declared);
+          }
+        });
+    // add dependent units, transitively
+    boolean grown = !dirtyNames.isEmpty();
+    while (grown) {
+      grown = false;
+      for (Map.Entry<String, Rendered> candidate : rendered.entrySet()) {
+        Entry entry = candidate.getValue().entry;
+        if (dirty.contains(candidate.getKey())
+            || Collections.disjoint(entry.referenced, dirtyNames)) {
+          continue;
+        }
+        dirty.add(candidate.getKey());
+        dirtyNames.addAll(entry.declared);
+        grown = true;
+      }
+    }
+    // compile dirty units against the class bytes of all clean units
+    Map<String, byte[]> classPath = new HashMap<>();
+    for (String uri : rendered.keySet()) {
+      if (!dirty.contains(uri)) {
+        classPath.putAll(entries.get(uri).classes);
+      }
+    }
+    if (!dirty.isEmpty()) {
+      List<JavaFileObject> files = new ArrayList<>();
+      dirty.forEach(uri -> files.add(rendered.get(uri).file));
+      CompilationResult result = session.call(options, emptyList(), files, null, classPath);
+      if (!result.isSuccess()) {
+        throw new RuntimeException("Compilation failed! " + result.getDiagnostics());
+      }
+      result
+          .getClassSources()
+          .forEach(
+              (name, uri) ->
+                  rendered.get(uri).entry.classes.put(name, result.getClasses().get(name)));
+    }
+    entries.keySet().retainAll(rendered.keySet());
+    dirty.forEach(uri -> entries.put(uri, rendered.get(uri).entry));
+    lastRecompiled = Collections.unmodifiableSet(dirty);
+    // fresh loader view
+    Map<String, byte[]> classes = new HashMap<>();
+    entries.values().forEach(entry -> classes.putAll(entry.classes));
+    ClassLoader loader = parent != null ? parent : Compilation.class.getClassLoader();
+    return new Compilation.SecureLoader(loader, classes::get);
+  }
+
+  /** Return URIs of the units recompiled by the last compile call. */
+  public synchronized Set<String> getLastRecompiled() {
+    return lastRecompiled;
+  }
+
+  public Compilation.Session getSession() {
+    return session;
+  }
+}
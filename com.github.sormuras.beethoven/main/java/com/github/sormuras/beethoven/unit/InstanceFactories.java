@@ -0,0 +1,171 @@
+package com.github.sormuras.beethoven.unit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+
+import com.github.sormuras.beethoven.Compilation;
+import com.github.sormuras.beethoven.CompilationCache;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.tools.JavaFileObject;
+
+/**
+ * Compiled classes and their constructor factories, cached per unit fingerprint.
+ *
+ * <p>The fingerprint is a SHA-256 digest of the unit's URI and rendered source, a modified unit is
+ * therefore compiled again. Misses are compiled by a shared session. The most recently used
+ * classes are kept, each one together with the factories created for its constructors.
+ */
+final class InstanceFactories {
+
+  /** Compiled class and its factories keyed by constructor type. */
+  private static final class Compiled {
+
+    private final Class<?> type;
+    private final ConcurrentMap<MethodType, Factory> factories = new ConcurrentHashMap<>();
+
+    Compiled(Class<?> type) {
+      this.type = type;
+    }
+  }
+
+  /** Constructor handle spread over an object array and adapted to generic object types. */
+  private static final class Factory implements Function<Object[], Object>, Supplier<Object> {
+
+    private final MethodHandle spreader;
+    private final int arity;
+
+    Factory(MethodHandle constructor) {
+      MethodType type = constructor.type();
+      this.arity = type.parameterCount();
+      this.spreader =
+          constructor
+              .asType(type.changeReturnType(Object.class))
+              .asSpreader(Object[].class, arity)
+              .asType(MethodType.methodType(Object.class, Object[].class));
+    }
+
+    @Override
+    public Object apply(Object[] args) {
+      Object[] arguments = args == null ? NO_ARGS : args;
+      if (arguments.length != arity) {
+        throw new IllegalArgumentException(
+            String.format("expected %d argument(s), but got: %d", arity, arguments.length));
+      }
+      try {
+        return spreader.invokeExact(arguments);
+      } catch (Error | RuntimeException e) {
+        throw e;
+      } catch (Throwable throwable) {
+        throw new IllegalStateException("instantiation failed", throwable);
+      }
+    }
+
+    @Override
+    public Object get() {
+      return apply(NO_ARGS);
+    }
+  }
+
+  /** Lazily created session shared by all compilations. */
+  private static final class SharedSession {
+
+    private static final Compilation.Session INSTANCE = new Compilation.Session();
+  }
+
+  private static final int MAX_CLASSES = 256;
+
+  private static final Object[] NO_ARGS = {};
+
+  private static final Map<String, Compiled> CLASSES =
+      Collections.synchronizedMap(
+          new LinkedHashMap<String, Compiled>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Compiled> eldest) {
+              return size() > MAX_CLASSES;
+            }
+          });
+
+  /** Return cached factory invoking the constructor of the given parameter types. */
+  @SuppressWarnings("unchecked")
+  static <T> Function<Object[], T> function(
+      CompilationUnit unit, Class<T> clazz, Class<?>... types) {
+    return (Function<Object[], T>) (Function<Object[], ?>) factory(unit, clazz, types);
+  }
+
+  /** Return cached factory invoking the no-arg constructor. */
+  @SuppressWarnings("unchecked")
+  static <T> Supplier<T> supplier(CompilationUnit unit, Class<T> clazz) {
+    return (Supplier<T>) (Supplier<?>) factory(unit, clazz);
+  }
+
+  private static Factory factory(CompilationUnit unit, Class<?> clazz, Class<?>... types) {
+    Compiled entry = entry(unit);
+    if (!clazz.isAssignableFrom(entry.type)) {
+      throw new ClassCastException(entry.type + " is not a subtype of " + clazz);
+    }
+    MethodType methodType = MethodType.methodType(void.class, types);
+    return entry.factories.computeIfAbsent(
+        methodType, key -> new Factory(constructor(entry.type, types)));
+  }
+
+  private static MethodHandle constructor(Class<?> type, Class<?>... types) {
+    try {
+      Constructor<?> constructor = type.getDeclaredConstructor(types);
+      constructor.setAccessible(true);
+      return MethodHandles.lookup().unreflectConstructor(constructor);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalArgumentException("no accessible constructor found in " + type, e);
+    }
+  }
+
+  private static Compiled entry(CompilationUnit unit) {
+    URI uri = unit.toURI();
+    String source = unit.list();
+    String fingerprint = fingerprint(uri + "\n" + source);
+    Compiled entry = CLASSES.get(fingerprint);
+    if (entry != null) {
+      return entry;
+    }
+    // compile outside of the lock, a concurrently compiled class may win
+    List<JavaFileObject> units = singletonList(Compilation.source(uri, source));
+    ClassLoader loader = SharedSession.INSTANCE.compile(null, emptyList(), emptyList(), units);
+    TypeDeclaration declaration =
+        unit.getEponymousDeclaration().orElseThrow(IllegalStateException::new);
+    String className = unit.getPackageDeclaration().resolve(declaration.getName());
+    try {
+      entry = new Compiled(loader.loadClass(className));
+    } catch (ClassNotFoundException e) {
+      throw new AssertionError("compiled class not found: " + className, e);
+    }
+    Compiled other = CLASSES.putIfAbsent(fingerprint, entry);
+    return other != null ? other : entry;
+  }
+
+  private static String fingerprint(String text) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return CompilationCache.hex(digest.digest(text.getBytes(UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new AssertionError("SHA-256 not available", e);
+    }
+  }
+
+  private InstanceFactories() {}
+}
@@ -5,6 +5,7 @@ import com.github.sormuras.beethoven.Listing;
 import com.github.sormuras.beethoven.type.ArrayType;
 import com.github.sormuras.beethoven.type.Type;
 import java.lang.annotation.ElementType;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
@@ -43,6 +44,23 @@ public class MethodParameter extends Annotatable {
     return listing;
   }
 
+  /** Compare structurally, ignoring the declaring method declaration. */
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null || getClass() != obj.getClass()) {
+      return false;
+    }
+    MethodParameter other = (MethodParameter) obj;
+    return finalModifier == other.finalModifier
+        && variable == other.variable
+        && Objects.equals(name, other.name)
+        && Objects.equals(type, other.type)
+        && getAnnotations().equals(other.getAnnotations());
+  }
+
   @Override
   public ElementType getAnnotationsTarget() {
     return ElementType.PARAMETER;
@@ -60,6 +78,11 @@ public class MethodParameter extends Annotatable {
     return type;
   }
 
+  @Override
+  public int hashCode() {
+    return Objects.hash(finalModifier, variable, name, type, getAnnotations());
+  }
+
   public boolean isFinal() {
     return finalModifier;
   }
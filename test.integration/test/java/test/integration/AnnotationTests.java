@@ -5,6 +5,7 @@ import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -62,7 +63,19 @@ class AnnotationTests {
     assertFalse(override.equals(null));
     // noinspection EqualsBetweenInconvertibleTypes
     assertFalse(override.equals(byte.class));
-    assertEquals(881672236, override.hashCode());
+    assertEquals(Annotation.annotation(Override.class).hashCode(), override.hashCode());
+    Annotation a = Annotation.annotation(Name.name("A"), "a", 1, Thread.State.NEW);
+    Annotation b = Annotation.annotation(Name.name("A"), "a", 1, Thread.State.NEW);
+    assertEquals(a, b);
+    assertEquals(a.hashCode(), b.hashCode());
+    assertNotEquals(a, Annotation.annotation(Name.name("A"), "a", 2, Thread.State.NEW));
+    assertNotEquals(a, Annotation.annotation(Name.name("B"), "a", 1, Thread.State.NEW));
+    Annotation l = Annotation.annotation(Name.name("L"));
+    l.addMember("value", listing -> listing.add("1 + 2"));
+    Annotation m = Annotation.annotation(Name.name("L"));
+    m.addMember("value", listing -> listing.add("1 + 2"));
+    assertEquals(l, m);
+    assertEquals(l.hashCode(), m.hashCode());
   }
 
   @Test
@@ -94,6 +107,24 @@ class AnnotationTests {
     assertTrue(error.getMessage().startsWith("Reflecting IllegalAnnotation failed:"));
   }
 
+  @Test
+  void reflectingAnnotationRethrowsErrors() {
+    InternalError internal = new InternalError("value");
+    Transient failing =
+        Tests.proxy(
+            Transient.class,
+            (proxy, method, args) -> {
+              if (method.getName().equals("annotationType")) {
+                return Transient.class;
+              }
+              if (method.getName().equals("toString")) {
+                return "FailingAnnotation";
+              }
+              throw internal;
+            });
+    assertSame(internal, assertThrows(InternalError.class, () -> Annotation.annotation(failing)));
+  }
+
   @Test
   void reflect() {
     assertEquals(
@@ -127,6 +158,17 @@ class AnnotationTests {
         Annotation.annotation(getClass().getAnnotation(All.class), true).list());
   }
 
+  @Test
+  void reflectRepeatedly() {
+    All all = getClass().getAnnotation(All.class);
+    Annotation expected = Annotation.annotation(all, true);
+    for (int i = 0; i < 3; i++) {
+      assertEquals(expected, Annotation.annotation(all, true));
+      assertEquals(Annotation.annotation(all), Annotation.annotation(all, false));
+    }
+    assertEquals(expected.list(), Annotation.annotation(all, true).list());
+  }
+
   @Test
   void simpleMarkerAnnotation() {
     Annotation marker = Annotation.annotation(Test.class);
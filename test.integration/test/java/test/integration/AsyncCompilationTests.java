@@ -0,0 +1,165 @@
+package test.integration;
+
+import static com.github.sormuras.beethoven.Compilation.source;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.sormuras.beethoven.AsyncCompilation;
+import com.github.sormuras.beethoven.CompilationResult;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+import javax.tools.JavaFileObject;
+import org.junit.jupiter.api.Test;
+
+class AsyncCompilationTests {
+
+  private static List<JavaFileObject> unit(String name) {
+    return singletonList(source("a/" + name + ".java", "package a; public class " + name + " {}"));
+  }
+
+  @Test
+  void compile() throws Exception {
+    try (AsyncCompilation compilation = new AsyncCompilation(2)) {
+      CompletableFuture<ClassLoader> future = compilation.compile(null, emptyList(), unit("A"));
+      assertEquals("a.A", future.get(1, TimeUnit.MINUTES).loadClass("a.A").getName());
+      List<JavaFileObject> broken = singletonList(source("B.java", "class B { int x = \"\"; }"));
+      CompilationResult result = compilation.call(emptyList(), emptyList(), broken).get();
+      assertFalse(result.isSuccess());
+      CompletableFuture<ClassLoader> failing = compilation.compile(null, emptyList(), broken);
+      ExecutionException e = assertThrows(ExecutionException.class, failing::get);
+      assertTrue(e.getCause().getMessage().startsWith("Compilation failed!"));
+    }
+  }
+
+  @Test
+  void concurrencyIsBoundedAndPendingCallsAreCancellable() throws Exception {
+    Queue<Runnable> tasks = new ArrayDeque<>();
+    try (AsyncCompilation compilation = new AsyncCompilation(tasks::add, 1)) {
+      CompletableFuture<ClassLoader> a = compilation.compile(null, emptyList(), unit("A"));
+      CompletableFuture<ClassLoader> b = compilation.compile(null, emptyList(), unit("B"));
+      CompletableFuture<ClassLoader> c = compilation.compile(null, emptyList(), unit("C"));
+      assertEquals(1, tasks.size());
+      assertEquals(1, compilation.getRunning());
+      assertEquals(2, compilation.getPending());
+      assertTrue(b.cancel(true));
+      assertTrue(b.isCancelled());
+      assertEquals(1, compilation.getPending());
+      tasks.poll().run();
+      assertTrue(a.isDone());
+      assertEquals(0, compilation.getPending());
+      tasks.poll().run();
+      assertEquals("a.C", c.get().loadClass("a.C").getName());
+      assertTrue(tasks.isEmpty());
+      assertEquals(0, compilation.getRunning());
+      assertEquals(0, compilation.getPending());
+    }
+    assertThrows(IllegalArgumentException.class, () -> new AsyncCompilation(Runnable::run, 0));
+  }
+
+  @Test
+  void pendingCallsAreBounded() throws Exception {
+    Queue<Runnable> tasks = new ArrayDeque<>();
+    try (AsyncCompilation compilation = new AsyncCompilation(tasks::add, 1, 1)) {
+      CompletableFuture<ClassLoader> a = compilation.compile(null, emptyList(), unit("A"));
+      CompletableFuture<ClassLoader> b = compilation.compile(null, emptyList(), unit("B"));
+      CompletableFuture<ClassLoader> c = compilation.compile(null, emptyList(), unit("C"));
+      assertEquals(1, compilation.getPending());
+      ExecutionException e = assertThrows(ExecutionException.class, c::get);
+      assertTrue(e.getCause() instanceof RejectedExecutionException);
+      // cancelled pending call frees its slot
+      assertTrue(b.cancel(true));
+      assertEquals(0, compilation.getPending());
+      CompletableFuture<ClassLoader> d = compilation.compile(null, emptyList(), unit("D"));
+      assertEquals(1, compilation.getPending());
+      tasks.poll().run();
+      assertEquals("a.A", a.get().loadClass("a.A").getName());
+      // task running when closing completes, its session is closed instead of pooled
+      compilation.close();
+      tasks.poll().run();
+      assertEquals("a.D", d.get().loadClass("a.D").getName());
+      assertTrue(tasks.isEmpty());
+    }
+    assertThrows(IllegalArgumentException.class, () -> new AsyncCompilation(Runnable::run, 1, -1));
+  }
+
+  @Test
+  void rejectedPendingCallsAreDrainedIteratively() {
+    int calls = 100_000;
+    Queue<Runnable> tasks = new ArrayDeque<>();
+    Executor executor =
+        task -> {
+          if (!tasks.isEmpty()) {
+            throw new RejectedExecutionException();
+          }
+          tasks.add(task);
+        };
+    try (AsyncCompilation compilation = new AsyncCompilation(executor, 1, calls)) {
+      CompletableFuture<CompilationResult> first =
+          compilation.call(emptyList(), emptyList(), unit("A"));
+      List<CompletableFuture<CompilationResult>> futures = new ArrayList<>();
+      for (int i = 0; i < calls; i++) {
+        futures.add(compilation.call(emptyList(), emptyList(), unit("A")));
+      }
+      assertEquals(calls, compilation.getPending());
+      first.cancel(true);
+      tasks.peek().run();
+      assertTrue(futures.stream().allMatch(CompletableFuture::isCompletedExceptionally));
+      assertEquals(0, compilation.getRunning());
+      assertEquals(0, compilation.getPending());
+    }
+  }
+
+  @Test
+  void cancellationAbortsRunningTask() {
+    AtomicReference<CompletableFuture<?>> reference = new AtomicReference<>();
+    AtomicInteger rounds = new AtomicInteger();
+    AbstractProcessor canceller =
+        new AbstractProcessor() {
+          @Override
+          public Set<String> getSupportedAnnotationTypes() {
+            return Collections.singleton("*");
+          }
+
+          @Override
+          public SourceVersion getSupportedSourceVersion() {
+            return SourceVersion.latestSupported();
+          }
+
+          @Override
+          public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment env) {
+            rounds.incrementAndGet();
+            reference.get().cancel(true);
+            return false;
+          }
+        };
+    Queue<Runnable> tasks = new ArrayDeque<>();
+    try (AsyncCompilation compilation = new AsyncCompilation(tasks::add, 1)) {
+      CompletableFuture<CompilationResult> future =
+          compilation.call(emptyList(), singletonList(canceller), unit("A"));
+      reference.set(future);
+      tasks.poll().run();
+      assertTrue(future.isCancelled());
+      assertEquals(1, rounds.get());
+      assertEquals(0, compilation.getRunning());
+    }
+  }
+}
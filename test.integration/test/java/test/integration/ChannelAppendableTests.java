@@ -0,0 +1,77 @@
+package test.integration;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.github.sormuras.beethoven.ChannelAppendable;
+import com.github.sormuras.beethoven.Listable;
+import com.github.sormuras.beethoven.unit.CompilationUnit;
+import com.github.sormuras.beethoven.unit.MethodDeclaration;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import javax.lang.model.element.Modifier;
+import org.junit.jupiter.api.Test;
+
+class ChannelAppendableTests {
+
+  @Test
+  void encodesUtf8() throws Exception {
+    String text = "ascii - äöü - € - 🎵 - ℕ";
+    for (int capacity : new int[] {4, 5, 7, 64, 8192}) {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      ChannelAppendable appendable =
+          new ChannelAppendable(Channels.newChannel(bytes), ByteBuffer.allocate(capacity));
+      appendable.append(text, 0, 5).append(text.charAt(5)).append(text.substring(6));
+      appendable.flush();
+      assertArrayEquals(text.getBytes(UTF_8), bytes.toByteArray(), "capacity " + capacity);
+    }
+  }
+
+  @Test
+  void encodesSurrogatePairSplitAcrossAppends() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ChannelAppendable appendable = new ChannelAppendable(Channels.newChannel(bytes));
+    appendable.append('\uD83C').append("\uDFB5");
+    appendable.flush();
+    assertEquals("🎵", new String(bytes.toByteArray(), UTF_8));
+  }
+
+  @Test
+  void unpairedHighSurrogateIsReplacedOnFlush() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ChannelAppendable appendable = new ChannelAppendable(Channels.newChannel(bytes));
+    appendable.append("a\uD83C");
+    appendable.flush();
+    assertArrayEquals("a\uD83C".getBytes(UTF_8), bytes.toByteArray());
+  }
+
+  @Test
+  void smallBufferIsRejected() {
+    WritableByteChannel channel = Channels.newChannel(new ByteArrayOutputStream());
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new ChannelAppendable(channel, ByteBuffer.allocate(3)));
+  }
+
+  @Test
+  void listCompilationUnit() {
+    CompilationUnit unit = CompilationUnit.of("abc");
+    MethodDeclaration method =
+        unit.declareClass("Sign", Modifier.PUBLIC).declareMethod(String.class, "sign");
+    method.addStatement("return {{S}}", "∑ ünïcödé");
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    unit.list(Channels.newChannel(bytes));
+    assertEquals(unit.list(), new String(bytes.toByteArray(), UTF_8));
+    bytes.reset();
+    Listable.SPACE.list(Channels.newChannel(bytes));
+    assertEquals(" ", new String(bytes.toByteArray(), UTF_8));
+    bytes.reset();
+    ByteBuffer buffer = ByteBuffer.allocate(16);
+    unit.list(Channels.newChannel(bytes), buffer);
+    assertEquals(unit.list(), new String(bytes.toByteArray(), UTF_8));
+  }
+}
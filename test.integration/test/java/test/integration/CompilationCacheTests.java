@@ -0,0 +1,149 @@
+package test.integration;
+
+import static com.github.sormuras.beethoven.Compilation.source;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.sormuras.beethoven.Compilation;
+import com.github.sormuras.beethoven.CompilationCache;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import javax.tools.JavaFileObject;
+import org.junit.jupiter.api.Test;
+
+class CompilationCacheTests {
+
+  private static JavaFileObject unit(String name) {
+    return source("c/" + name + ".java", "package c; public class " + name + " {}");
+  }
+
+  @Test
+  void hitSkipsCompilation() throws Exception {
+    CompilationCache cache = new CompilationCache(10, 1_000_000);
+    try (Compilation.Session session = new Compilation.Session()) {
+      List<JavaFileObject> units = singletonList(unit("A"));
+      ClassLoader first = cache.compile(session, null, emptyList(), emptyList(), units);
+      ClassLoader second = cache.compile(session, null, emptyList(), emptyList(), units);
+      assertEquals(1, session.getCalls());
+      assertEquals(1, cache.getMisses());
+      assertEquals(1, cache.getHits());
+      assertNotSame(first.loadClass("c.A"), second.loadClass("c.A"));
+      assertEquals(cache.getCompiledBytes(), cache.getBytes());
+      assertTrue(cache.getBytes() > 0);
+      Map<String, byte[]> classes = cache.compileClasses(session, emptyList(), emptyList(), units);
+      assertThrows(UnsupportedOperationException.class, classes::clear);
+    }
+  }
+
+  @Test
+  void keyCoversOptionsAndSources() {
+    CompilationCache cache = new CompilationCache(10, 1_000_000);
+    List<JavaFileObject> a = singletonList(unit("A"));
+    String key = cache.key(emptyList(), emptyList(), a);
+    assertEquals(64, key.length());
+    assertEquals(key, cache.key(emptyList(), emptyList(), singletonList(unit("A"))));
+    assertNotEquals(key, cache.key(emptyList(), emptyList(), singletonList(unit("B"))));
+    assertNotEquals(key, cache.key(singletonList("-g"), emptyList(), a));
+    assertNotEquals(
+        cache.key(Arrays.asList("--release", "8"), emptyList(), a),
+        cache.key(Arrays.asList("--release", "9"), emptyList(), a));
+    assertEquals(
+        cache.key(emptyList(), emptyList(), Arrays.asList(unit("A"), unit("B"))),
+        cache.key(emptyList(), emptyList(), Arrays.asList(unit("B"), unit("A"))));
+  }
+
+  @Test
+  void evictLeastRecentlyUsed() {
+    CompilationCache cache = new CompilationCache(2, 1_000_000);
+    cache.compile(unit("A"));
+    cache.compile(unit("B"));
+    cache.compile(unit("A"));
+    cache.compile(unit("C"));
+    assertEquals(2, cache.size());
+    cache.compile(unit("A"));
+    assertEquals(2, cache.getHits());
+    cache.compile(unit("B"));
+    assertEquals(4, cache.getMisses());
+    CompilationCache tiny = new CompilationCache(10, 1);
+    tiny.compile(unit("A"));
+    tiny.compile(unit("B"));
+    assertEquals(1, tiny.size());
+    assertThrows(IllegalArgumentException.class, () -> new CompilationCache(0, 1));
+    assertThrows(IllegalArgumentException.class, () -> new CompilationCache(1, 0));
+  }
+
+  @Test
+  void diskTier() throws Exception {
+    Path directory = Files.createTempDirectory("beethoven-cache-");
+    try {
+      new CompilationCache(10, 1_000_000, directory).compile(unit("A"));
+      CompilationCache restarted = new CompilationCache(10, 1_000_000, directory);
+      ClassLoader loader = restarted.compile(unit("A"));
+      assertEquals("c.A", loader.loadClass("c.A").getName());
+      assertEquals(0, restarted.getMisses());
+      assertEquals(1, restarted.getDiskHits());
+      restarted.compile(unit("A"));
+      assertEquals(1, restarted.getHits());
+      assertTrue(restarted.toString().startsWith("CompilationCache [size=1, bytes="));
+      // a truncated file is a miss and gets replaced
+      String key = restarted.key(emptyList(), emptyList(), singletonList(unit("A")));
+      Path file = directory.resolve(key + ".classes");
+      byte[] bytes = Files.readAllBytes(file);
+      Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+      CompilationCache corrupted = new CompilationCache(10, 1_000_000, directory);
+      assertEquals("c.A", corrupted.compile(unit("A")).loadClass("c.A").getName());
+      assertEquals(1, corrupted.getMisses());
+      assertArrayEquals(bytes, Files.readAllBytes(file));
+    } finally {
+      try (Stream<Path> paths = Files.list(directory)) {
+        paths.forEach(path -> path.toFile().delete());
+      }
+      Files.delete(directory);
+    }
+  }
+
+  @Test
+  void diskTierIsBoundedAndBestEffort() throws Exception {
+    Path directory = Files.createTempDirectory("beethoven-cache-");
+    try {
+      new CompilationCache(10, 1_000_000, directory).compile(unit("A"));
+      long size;
+      try (Stream<Path> paths = Files.list(directory)) {
+        size = paths.mapToLong(path -> path.toFile().length()).sum();
+      }
+      CompilationCache cache = new CompilationCache(10, 1_000_000, directory, 2 * size);
+      assertEquals(2 * size, cache.getMaxDiskBytes());
+      cache.compile(unit("B"));
+      cache.compile(unit("C"));
+      try (Stream<Path> paths = Files.list(directory)) {
+        assertEquals(2, paths.count());
+      }
+      assertEquals(0, cache.prune());
+      assertThrows(IllegalArgumentException.class, () -> new CompilationCache(1, 1, directory, 0));
+    } finally {
+      try (Stream<Path> paths = Files.list(directory)) {
+        paths.forEach(path -> path.toFile().delete());
+      }
+      Files.delete(directory);
+    }
+    // a regular file is no directory, writing fails silently
+    Path file = Files.createTempFile("beethoven-cache-", ".file");
+    try {
+      CompilationCache cache = new CompilationCache(10, 1_000_000, file);
+      assertEquals("c.A", cache.compile(unit("A")).loadClass("c.A").getName());
+      assertEquals(0, Files.size(file));
+    } finally {
+      Files.delete(file);
+    }
+  }
+}
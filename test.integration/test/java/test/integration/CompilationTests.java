@@ -2,13 +2,39 @@ package test.integration;
 
 import static com.github.sormuras.beethoven.Compilation.compile;
 import static com.github.sormuras.beethoven.Compilation.source;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 import com.github.sormuras.beethoven.Compilation;
+import com.github.sormuras.beethoven.CompilationResult;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntSupplier;
+import java.util.jar.JarEntry;
+import java.util.jar.JarInputStream;
+import java.util.jar.JarOutputStream;
+import javax.tools.Diagnostic;
+import javax.tools.JavaCompiler;
 import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
 import org.junit.jupiter.api.Test;
 
 class CompilationTests {
@@ -29,6 +55,75 @@ class CompilationTests {
     assertThrows(RuntimeException.class, () -> compile("A", "enum E {}"));
   }
 
+  @Test
+  void callReturnsResult() {
+    try (Compilation.Session session = new Compilation.Session()) {
+      String code = "package t; public class T { class I {} Runnable r = () -> {}; }";
+      JavaFileObject unit = source("t/T.java", code);
+      CompilationResult result = session.call(emptyList(), emptyList(), singletonList(unit));
+      assertTrue(result.isSuccess());
+      assertEquals(asList("t.T", "t.T$I"), new ArrayList<>(result.getClasses().keySet()));
+      assertTrue(result.getPhases().keySet().containsAll(asList("PARSE", "ANALYZE", "GENERATE")));
+      assertFalse(result.getDuration().isNegative());
+      String uri = unit.toUri().toString();
+      assertEquals(singletonMap(uri, 2), result.getUnitClassCounts());
+      long size = result.getClasses().values().stream().mapToLong(bytes -> bytes.length).sum();
+      assertEquals(singletonMap(uri, size), result.getUnitClassSizes());
+      assertTrue(result.toString().startsWith("CompilationResult [success=true, classes=2"));
+      CompilationResult failed =
+          session.call(emptyList(), emptyList(), singletonList(source("F.java", "class 1F {}")));
+      assertFalse(failed.isSuccess());
+      assertTrue(failed.getClasses().isEmpty());
+      assertFalse(failed.getDiagnostics().isEmpty());
+    }
+  }
+
+  @Test
+  void checkStopsBeforeGenerate() {
+    JavaFileObject valid = source("c/C.java", "package c; class C { int x = 1; }");
+    CompilationResult result = Compilation.check(valid);
+    assertTrue(result.isSuccess());
+    assertTrue(result.getClasses().isEmpty());
+    assertTrue(result.getPhases().containsKey("ANALYZE"));
+    assertFalse(result.getPhases().containsKey("GENERATE"));
+    JavaFileObject invalid = source("c/D.java", "package c;\nclass D {\n  int x = \"\";\n}");
+    result = Compilation.check(valid, invalid);
+    assertFalse(result.isSuccess());
+    assertEquals(1, result.getDiagnostics().size());
+    Diagnostic<? extends JavaFileObject> diagnostic = result.getDiagnostics().get(0);
+    assertEquals(Diagnostic.Kind.ERROR, diagnostic.getKind());
+    assertEquals(3, diagnostic.getLineNumber());
+    assertEquals(invalid, diagnostic.getSource());
+  }
+
+  @Test
+  void compileJarIsReproducible() throws Exception {
+    String code = "package j; public class J { class I {} }";
+    byte[][] jars = new byte[2][];
+    try (Compilation.Session session = new Compilation.Session()) {
+      for (int i = 0; i < jars.length; i++) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JarOutputStream jar = new JarOutputStream(bytes)) {
+          List<JavaFileObject> units = singletonList(source("j/J.java", code));
+          CompilationResult result = session.compileJar(emptyList(), emptyList(), units, jar);
+          assertTrue(result.getClasses().isEmpty());
+          assertEquals(2, result.getUnitClassCounts().values().iterator().next());
+        }
+        jars[i] = bytes.toByteArray();
+        Thread.sleep(10);
+      }
+      assertTrue(session.getClassBytes().isEmpty());
+    }
+    assertArrayEquals(jars[0], jars[1]);
+    List<String> names = new ArrayList<>();
+    try (JarInputStream jar = new JarInputStream(new ByteArrayInputStream(jars[0]))) {
+      for (JarEntry entry; (entry = jar.getNextJarEntry()) != null; ) {
+        names.add(entry.getName());
+      }
+    }
+    assertEquals(asList("j/J$I.class", "j/J.class"), names);
+  }
+
   @Test
   void hi() throws Exception {
     String code = "public class Hi { public String greet(String who) { return \"Hi \" + who;}}";
@@ -56,6 +151,117 @@ class CompilationTests {
     compile(fileA, fileB);
   }
 
+  @Test
+  void session() throws Exception {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    try (Compilation.Session session = new Compilation.Session(compiler, 3)) {
+      for (int i = 0; i < 4; i++) {
+        String code = "package s; public class S" + i + " { int i = " + i + "; }";
+        ClassLoader loader = session.compile(source("s/S" + i + ".java", code));
+        assertEquals("s.S" + i, loader.loadClass("s.S" + i).getName());
+        assertEquals(i + 1, session.getCalls());
+      }
+      assertEquals(3, session.getClassBytes().size());
+      assertFalse(session.getClassBytes().containsKey("s.S0"));
+      assertTrue(session.getClassBytes().containsKey("s.S3"));
+      assertFalse(session.getLastCallDuration().isNegative());
+      assertTrue(session.getTotalCallDuration().compareTo(session.getLastCallDuration()) >= 0);
+      assertThrows(RuntimeException.class, () -> session.compile(source("F.java", "class 1F {}")));
+      assertEquals(5, session.getCalls());
+      assertEquals(3, session.getClassBytes().size());
+      session.clearClassBytes();
+      assertTrue(session.getClassBytes().isEmpty());
+    }
+    try (Compilation.Session session = new Compilation.Session()) {
+      session.compile(source("s/S.java", "package s; class S {}"));
+      assertEquals(0, session.getRetainedClasses());
+      assertTrue(session.getClassBytes().isEmpty());
+    }
+  }
+
+  @Test
+  void secureLoaderReleasesBytesOnClose() throws Exception {
+    try (Compilation.Session session = new Compilation.Session()) {
+      String code = "package r; public class R { public static class N {} }";
+      Map<String, byte[]> classes =
+          session.compileClasses(emptyList(), emptyList(), singletonList(source("r/R.java", code)));
+      Compilation.SecureLoader loader = new Compilation.SecureLoader(null, classes::get);
+      assertEquals("r.R", loader.loadClass("r.R").getName());
+      loader.close();
+      assertEquals("r.R", loader.loadClass("r.R").getName());
+      assertThrows(ClassNotFoundException.class, () -> loader.loadClass("r.R$N"));
+    }
+  }
+
+  @Test
+  void unloadableClassesAreCollected() throws Exception {
+    String code =
+        "package test.integration;"
+            + "public class Throwaway implements java.util.function.IntSupplier {"
+            + "  public int getAsInt() { return 42; } }";
+    Map<String, byte[]> classes;
+    try (Compilation.Session session = new Compilation.Session()) {
+      JavaFileObject unit = source("test/integration/Throwaway.java", code);
+      classes = session.compileClasses(emptyList(), emptyList(), singletonList(unit));
+    }
+    assumeTrue(Compilation.HiddenClassDefiner.isSupported(), "Java 15+ expected");
+    for (Lookup lookup : new Lookup[] {MethodHandles.lookup(), null}) {
+      List<WeakReference<Class<?>>> references = new ArrayList<>();
+      for (int i = 0; i < 1000; i++) {
+        Class<?> type = Compilation.defineUnloadable(lookup, classes);
+        IntSupplier supplier = (IntSupplier) type.getConstructor().newInstance();
+        assertEquals(42, supplier.getAsInt());
+        assertEquals(lookup != null, type.getName().contains("/"), "hidden class name");
+        references.add(new WeakReference<>(type));
+      }
+      for (int i = 0; i < 50 && references.stream().anyMatch(r -> r.get() != null); i++) {
+        System.gc();
+        Thread.sleep(10);
+      }
+      assertTrue(references.stream().allMatch(r -> r.get() == null), "all classes collected");
+    }
+    Map<String, byte[]> empty = emptyMap();
+    assertThrows(IllegalArgumentException.class, () -> Compilation.defineUnloadable(null, empty));
+  }
+
+  @Test
+  void unloadableBatchDefinesNestedClasses() throws Exception {
+    String code =
+        "package u; public class U implements java.util.function.IntSupplier {"
+            + "  static class N { int i = 1; }"
+            + "  class I { int i = new N().i + 1; }"
+            + "  public int getAsInt() {"
+            + "    Runnable anonymous = new Runnable() { public void run() {} };"
+            + "    java.util.function.IntSupplier lambda = () -> new I().i;"
+            + "    return lambda.getAsInt(); } }";
+    Map<String, byte[]> classes;
+    try (Compilation.Session session = new Compilation.Session()) {
+      JavaFileObject unit = source("u/U.java", code);
+      classes = session.compileClasses(emptyList(), emptyList(), singletonList(unit));
+    }
+    assertEquals(4, classes.size());
+    List<WeakReference<Class<?>>> references = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      Class<?> type = Compilation.defineUnloadable(MethodHandles.lookup(), classes);
+      assertEquals("u.U", type.getName());
+      assertEquals(2, ((IntSupplier) type.getConstructor().newInstance()).getAsInt());
+      references.add(new WeakReference<>(type));
+    }
+    ClassLoader batch = Compilation.defineBatch(null, classes);
+    assertEquals("u.U$N", batch.loadClass("u.U$N").getName());
+    ((Compilation.SecureLoader) batch).close();
+    for (int i = 0; i < 50 && references.stream().anyMatch(r -> r.get() != null); i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    assertTrue(references.stream().allMatch(r -> r.get() == null), "all classes collected");
+    Map<String, byte[]> two = new TreeMap<>(classes);
+    two.put("v.V", classes.get("u.U"));
+    Exception e =
+        assertThrows(IllegalArgumentException.class, () -> Compilation.defineUnloadable(null, two));
+    assertEquals("expected single top level class, but got: [u.U, v.V]", e.getMessage());
+  }
+
   @Test
   void syntaxError() {
     assertThrows(Exception.class, () -> compile(source("F.java", "class 1F {}")));
@@ -12,6 +12,7 @@ import com.github.sormuras.beethoven.Annotation;
 import com.github.sormuras.beethoven.Listable;
 import com.github.sormuras.beethoven.Listing;
 import com.github.sormuras.beethoven.Name;
+import com.github.sormuras.beethoven.StreamingListing;
 import com.github.sormuras.beethoven.Style;
 import java.io.ByteArrayOutputStream;
 import java.io.ObjectOutputStream;
@@ -165,6 +166,23 @@ class ListingTests {
     assertEquals("      1\n      2\n", listing.newline().toString());
   }
 
+  @Test
+  void streaming() {
+    StringBuilder builder = new StringBuilder();
+    StreamingListing streaming = new StreamingListing(builder, "  ", "\n", Style::auto);
+    Listing listing = new Listing("\n");
+    for (Listing l : new Listing[] {streaming, listing}) {
+      l.newline().add("BEGIN").newline().newline().newline();
+      l.indent(1).add("writeln('Hello, world.')").newline().indent(-1);
+      l.add("END.").newline().newline().indent(2).add("// eof");
+    }
+    assertTrue(streaming.getCollectedLines().isEmpty());
+    assertEquals("BEGIN\n\n  writeln('Hello, world.')\nEND.\n\n", builder.toString());
+    streaming.flush();
+    assertEquals(0, streaming.getCurrentLine().length());
+    assertEquals(listing.toString(), builder.toString());
+  }
+
   @Test
   void newlineProducesOnlyOneSingleBlankLine() {
     Listing listing = new Listing("\n");
@@ -5,6 +5,8 @@ import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -141,6 +143,19 @@ class NameTests {
     assertFalse(Name.name(byte.class).equals(new Name(0, asList("some", "byte"))));
   }
 
+  @Test
+  void intern() {
+    assertSame(Name.name(Object.class), Name.name("java", "lang", "Object"));
+    assertSame(Name.name(Thread.State.class), Name.name(2, "java.lang.Thread.State", false));
+    assertSame(Name.name(Math.class, "PI"), Name.name("java.lang.Math.PI"));
+    Name fresh = new Name(1, asList("abc", "Xyz"));
+    assertSame(Name.name("abc", "Xyz"), Name.intern(fresh));
+    assertEquals(fresh, Name.intern(fresh));
+    assertNotEquals(Name.name(0, asList("abc", "Xyz")), fresh);
+    assertNotSame(Name.name(2, asList("a", "b", "c"), true), Name.name(2, asList("a", "b", "c")));
+    assertEquals(Name.name(2, asList("a", "b", "c"), true), Name.name(2, asList("a", "b", "c")));
+  }
+
   @Test
   void name() {
     assertEquals("A", Name.name("A").canonical());
@@ -0,0 +1,131 @@
+package test.integration;
+
+import static com.github.sormuras.beethoven.Compilation.source;
+import static java.util.Collections.emptyList;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.sormuras.beethoven.ParallelCompilation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.tools.JavaFileObject;
+import org.junit.jupiter.api.Test;
+
+class ParallelCompilationTests {
+
+  private static List<JavaFileObject> units(int count) {
+    List<JavaFileObject> units = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      String code = "package p; public class U" + i + " { int value() { return " + i + "; } }";
+      units.add(source("p/U" + i + ".java", code));
+    }
+    return units;
+  }
+
+  @Test
+  void partitionKeepsDependentUnitsTogether() {
+    JavaFileObject a = source("p/A.java", "package p; public class A {}");
+    JavaFileObject b = source("p/B.java", "package p; public class B extends A {}");
+    JavaFileObject c = source("q/C.java", "package q; public class C { p.B b; }");
+    JavaFileObject x = source("x/X.java", "package x; public class X {}");
+    JavaFileObject y = source("y/Y.java", "package y; public class Y {}");
+    List<JavaFileObject> units = Arrays.asList(a, b, x, c, y);
+    List<List<JavaFileObject>> shards = ParallelCompilation.partition(units, 4);
+    assertEquals(3, shards.size());
+    assertEquals(Arrays.asList(a, b, c), shards.get(0));
+    assertEquals(1, ParallelCompilation.partition(Arrays.asList(a, b, c), 4).size());
+    assertEquals(2, ParallelCompilation.partition(units(10), 2).size());
+    assertEquals(5, ParallelCompilation.partition(units(10), 2).get(0).size());
+    assertThrows(IllegalArgumentException.class, () -> ParallelCompilation.partition(units(1), 0));
+  }
+
+  @Test
+  void partitionDetectsSecondaryAndNestedTypes() {
+    String code = "package p; public class D { public static class N {} } class S {}";
+    JavaFileObject d = source("p/D.java", code);
+    JavaFileObject n = source("p/E.java", "package p; class E { N n; }");
+    JavaFileObject s = source("p/F.java", "package p; class F extends S {}");
+    List<List<JavaFileObject>> shards = ParallelCompilation.partition(Arrays.asList(d, n, s), 3);
+    assertEquals(1, shards.size());
+  }
+
+  @Test
+  void undetectedDependencyFallsBackToSingleTask() {
+    JavaFileObject a = source("p/A.java", "package p; public class A {}");
+    // reference hidden from the partitioning by a unicode escape
+    JavaFileObject b = source("q/B.java", "package q; class B { p.\\u0041 a; }");
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try (ParallelCompilation compilation = new ParallelCompilation(executor, 2)) {
+      assertEquals(2, ParallelCompilation.partition(Arrays.asList(a, b), 2).size());
+      Map<String, byte[]> classes = compilation.compileClasses(emptyList(), Arrays.asList(a, b));
+      assertEquals(2, classes.size());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void compileWithOneToManyThreads() throws Exception {
+    List<JavaFileObject> units = units(12);
+    units.add(source("p/Sum.java", "package p; class Sum { int sum = new U3().value(); }"));
+    Map<String, byte[]> expected = null;
+    for (int threads = 1; threads <= 4; threads++) {
+      ExecutorService executor = Executors.newFixedThreadPool(threads);
+      try (ParallelCompilation compilation = new ParallelCompilation(executor, threads)) {
+        Map<String, byte[]> classes = compilation.compileClasses(emptyList(), units);
+        assertEquals(13, classes.size());
+        if (expected == null) {
+          expected = classes;
+        }
+        for (String name : expected.keySet()) {
+          assertArrayEquals(expected.get(name), classes.get(name), name);
+        }
+        ClassLoader loader = compilation.compile(null, emptyList(), units);
+        Class<?> sum = loader.loadClass("p.Sum");
+        assertSame(loader, sum.getClassLoader());
+        assertSame(loader, loader.loadClass("p.U3").getClassLoader());
+      } finally {
+        executor.shutdown();
+      }
+    }
+  }
+
+  @Test
+  void failingShardIsReported() {
+    List<JavaFileObject> units = units(3);
+    units.add(source("p/F.java", "package p; class 1F {}"));
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try (ParallelCompilation compilation = new ParallelCompilation(executor, 2)) {
+      Exception e =
+          assertThrows(
+              RuntimeException.class, () -> compilation.compileClasses(emptyList(), units));
+      assertEquals(1, e.getSuppressed().length, "syntax error is not compiled again");
+      assertTrue(e.getSuppressed()[0].getMessage().startsWith("Compilation failed!"));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void unresolvedSymbolIsReportedByFallback() {
+    List<JavaFileObject> units = units(3);
+    units.add(source("q/M.java", "package q; class M { p.Missing missing; }"));
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try (ParallelCompilation compilation = new ParallelCompilation(executor, 2)) {
+      Exception e =
+          assertThrows(
+              RuntimeException.class, () -> compilation.compileClasses(emptyList(), units));
+      assertEquals(1, e.getSuppressed().length, "failed fallback replaces failed shard");
+      assertTrue(e.getSuppressed()[0].getMessage().contains("Missing"));
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -1,9 +1,15 @@
 package test.integration.script;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import com.github.sormuras.beethoven.Listing;
+import com.github.sormuras.beethoven.script.Action;
+import com.github.sormuras.beethoven.script.ActionTable;
 import com.github.sormuras.beethoven.script.Parser;
+import com.github.sormuras.beethoven.script.Script;
 import com.github.sormuras.beethoven.script.Tag;
 import java.util.function.UnaryOperator;
 import org.junit.jupiter.api.Test;
@@ -31,6 +37,45 @@ class ParserTests {
     assertEquals(Tag.REFLECT, parser.action("#test"));
   }
 
+  @Test
+  void actionNotFound() {
+    Exception e = assertThrows(IllegalArgumentException.class, () -> parser.action("?"));
+    assertEquals("No action handles: `?`", e.getMessage());
+    assertThrows(IllegalArgumentException.class, () -> parser.action(""));
+    assertThrows(IllegalArgumentException.class, () -> parser.action("#"));
+    assertThrows(IllegalArgumentException.class, () -> parser.action("><"));
+  }
+
+  @Test
+  void customActions() {
+    Action upper = (listing, tag, arg) -> listing.add(String.valueOf(arg).toUpperCase());
+    Action star = (listing, tag, arg) -> listing.add(tag.replace('*', '-'));
+    Action any =
+        new Action() {
+          @Override
+          public Listing execute(Listing listing, String tag, Object arg) {
+            return listing.add(tag.toLowerCase());
+          }
+
+          @Override
+          public boolean handles(String tag) {
+            return tag.startsWith("!");
+          }
+        };
+    ActionTable table = ActionTable.standard().put("U", upper).put('*', tag -> true, star).add(any);
+    Parser custom = new Parser("<%", "%>", table);
+    assertNotSame(table, custom.getActionTable());
+    assertFalse(custom.getActionTable().isModifiable());
+    assertThrows(UnsupportedOperationException.class, () -> parser.getActionTable().add(any));
+    table.put("U", Tag.LITERAL);
+    assertEquals(upper, custom.action("U"));
+    assertEquals(star, custom.action("***"));
+    assertEquals(any, custom.action("!ABC"));
+    assertEquals(Tag.INDENT_INC, custom.action(">>"));
+    Script script = new Script("<%U%> <%**%> <%!ABC%><%;%>", custom);
+    assertEquals("ABC -- !abc;\n", script.eval(new Listing("\n"), "abc", 2, 3).toString());
+  }
+
   @Test
   void indent() {
     UnaryOperator<String> operator = source -> parser.parse(source).get(0).toString();
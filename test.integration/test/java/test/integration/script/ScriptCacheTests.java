@@ -0,0 +1,61 @@
+package test.integration.script;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.github.sormuras.beethoven.Listing;
+import com.github.sormuras.beethoven.script.Script;
+import com.github.sormuras.beethoven.script.ScriptCache;
+import org.junit.jupiter.api.Test;
+
+class ScriptCacheTests {
+
+  @Test
+  void hitsAndMisses() {
+    ScriptCache cache = new ScriptCache(2);
+    Script script = cache.get("{{N}} {{$}}");
+    assertSame(script, cache.get("{{N}} {{$}}"));
+    assertNotSame(script, cache.get("{{N}} {{$}}", "<%", "%>"));
+    assertEquals(1, cache.getHits());
+    assertEquals(2, cache.getMisses());
+    assertEquals(2, cache.size());
+    assertEquals("ScriptCache [size=2, capacity=2, hits=1, misses=2]", cache.toString());
+    cache.clear();
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void leastRecentlyUsedScriptIsEvicted() {
+    ScriptCache cache = new ScriptCache(2);
+    Script a = cache.get("a");
+    Script b = cache.get("b");
+    assertSame(a, cache.get("a"));
+    cache.get("c");
+    assertEquals(2, cache.size());
+    assertSame(a, cache.get("a"));
+    assertNotSame(b, cache.get("b"));
+  }
+
+  @Test
+  void customMarkers() {
+    Script script = new ScriptCache(1).get("<%S%> = <%$%>", "<%", "%>");
+    assertEquals("\"a\" = b", script.eval(new Listing(), "a", "b").toString());
+  }
+
+  @Test
+  void illegalCapacity() {
+    assertThrows(IllegalArgumentException.class, () -> new ScriptCache(0));
+  }
+
+  @Test
+  void listingUsesDefaultCache() {
+    String source = "{{$}} // " + getClass();
+    long misses = ScriptCache.DEFAULT.getMisses();
+    new Listing().eval(source, 1);
+    new Listing().eval(source, 2);
+    assertEquals(misses + 1, ScriptCache.DEFAULT.getMisses());
+    assertSame(Script.of(source), Script.of(source));
+  }
+}
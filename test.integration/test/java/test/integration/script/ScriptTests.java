@@ -2,10 +2,16 @@ package test.integration.script;
 
 import static java.util.Collections.singletonMap;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import com.github.sormuras.beethoven.Listing;
+import com.github.sormuras.beethoven.script.Command;
+import com.github.sormuras.beethoven.script.Parser;
 import com.github.sormuras.beethoven.script.Script;
+import com.github.sormuras.beethoven.script.Tag;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
 
@@ -62,6 +68,59 @@ class ScriptTests {
     assertEquals(String.join(System.lineSeparator(), expected), actual);
   }
 
+  @Test
+  void slots() {
+    Script script = new Script("{{$}} {{$:name}} {{$:3}} {{$}} {{$:name}} {{$:other}}");
+    assertEquals(6, script.getSlotCount());
+    Map<String, Integer> expected = new LinkedHashMap<>();
+    expected.put("name", 4);
+    expected.put("other", 5);
+    assertEquals(expected, script.getNameToSlot());
+    Map<String, Object> map = new LinkedHashMap<>();
+    map.put("0", "a");
+    map.put("1", "b");
+    map.put("3", "c");
+    map.put("name", "n");
+    map.put("other", "o");
+    assertEquals("a n c b n o", script.eval(new Listing(), map).toString());
+  }
+
+  @Test
+  void nonCanonicalIndexSelectorsAreNames() {
+    Parser parser =
+        new Parser() {
+          @Override
+          public List<Command> parse(String source) {
+            return Arrays.asList(
+                new Command("$", "01", Tag.LITERAL),
+                new Command("$", "+1", Tag.LITERAL),
+                new Command("$", "1", Tag.LITERAL));
+          }
+        };
+    Script script = new Script("", parser);
+    Map<String, Integer> expected = new LinkedHashMap<>();
+    expected.put("01", 2);
+    expected.put("+1", 3);
+    assertEquals(expected, script.getNameToSlot());
+    Map<String, Object> map = new LinkedHashMap<>();
+    map.put("01", "a");
+    map.put("+1", "b");
+    map.put("1", "c");
+    assertEquals("abc", script.eval(new Listing(), map).toString());
+  }
+
+  @Test
+  void missingArgument() {
+    Script script = new Script("{{$}} {{$:name}}");
+    Exception e = assertThrows(IllegalArgumentException.class, () -> script.eval(new Listing()));
+    assertEquals("No argument for `0` available in: []", e.getMessage());
+    e = assertThrows(IllegalArgumentException.class, () -> script.eval(new Listing(), 1));
+    assertEquals("No argument for `name` available in: [1]", e.getMessage());
+    Map<String, Object> map = singletonMap("0", 1);
+    e = assertThrows(IllegalArgumentException.class, () -> script.eval(new Listing(), map));
+    assertEquals("No argument for `name` available in: {0=1}", e.getMessage());
+  }
+
   @Test
   void reflection() {
     assertEquals("1 2 3", eval("1 {{#toString // auto-index map w/ position }} 3", 2));
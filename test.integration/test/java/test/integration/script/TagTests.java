@@ -2,8 +2,12 @@ package test.integration.script;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.github.sormuras.beethoven.Name;
 import com.github.sormuras.beethoven.script.Tag;
+import java.util.NoSuchElementException;
+import java.util.Optional;
 import org.junit.jupiter.api.Test;
 
 class TagTests {
@@ -22,4 +26,32 @@ class TagTests {
     assertEquals("Integer", Tag.reflect("#class.simpleName", 1));
     assertEquals(30, Tag.reflect("#class.simpleName.hashCode.byteValue.intValue", 1));
   }
+
+  @Test
+  void reflectGetterAndNonFinalIntermediate() {
+    Name name = Name.name(Thread.State.class);
+    for (int i = 0; i < 3; i++) {
+      assertEquals("java.lang.Thread.State", Tag.reflect("#canonical", name));
+      assertEquals("java.lang", Tag.reflect("#class.package.name", ""));
+      assertEquals(9, Tag.reflect("#class.package.name.length", ""));
+      assertEquals(6, Tag.reflect("#enclosing.lastName.length", name));
+    }
+  }
+
+  @Test
+  void reflectMissIsCached() {
+    for (int i = 0; i < 3; i++) {
+      Exception e = assertThrows(IllegalArgumentException.class, () -> Tag.reflect("#x.y", 1));
+      assertEquals("Can't reflect tag: x.y", e.getMessage());
+      assertTrue(e.getCause() instanceof NoSuchMethodException);
+    }
+  }
+
+  @Test
+  void reflectGetterFailureIsWrapped() {
+    Optional<?> empty = Optional.empty();
+    Exception e = assertThrows(IllegalArgumentException.class, () -> Tag.reflect("#get", empty));
+    assertEquals("Can't reflect tag: get", e.getMessage());
+    assertTrue(e.getCause() instanceof NoSuchElementException);
+  }
 }
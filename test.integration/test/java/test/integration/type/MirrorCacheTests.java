@@ -0,0 +1,84 @@
+package test.integration.type;
+
+import static com.github.sormuras.beethoven.Compilation.source;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.github.sormuras.beethoven.Compilation;
+import com.github.sormuras.beethoven.type.MirrorCache;
+import com.github.sormuras.beethoven.type.Type;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.JavaFileObject;
+import org.junit.jupiter.api.Test;
+
+class MirrorCacheTests {
+
+  private static class Converter extends AbstractProcessor {
+
+    private final Map<String, Type> types = new HashMap<>();
+    private String cache;
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+      return singleton("*");
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+      return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+      if (round.processingOver()) {
+        return false;
+      }
+      MirrorCache mirrors = new MirrorCache(processingEnv);
+      for (Element root : round.getRootElements()) {
+        for (Element member : root.getEnclosedElements()) {
+          if (member.getKind() == ElementKind.FIELD) {
+            types.put(member.getSimpleName().toString(), mirrors.type(member.asType()));
+          }
+        }
+      }
+      cache = mirrors.toString();
+      return false;
+    }
+  }
+
+  @Test
+  void equalMirrorsAreConvertedOnce() {
+    StringBuilder code = new StringBuilder("package m; class M {\n");
+    code.append("  @java.lang.annotation.Target(java.lang.annotation.ElementType.TYPE_USE)\n");
+    code.append("  @interface A {}\n");
+    for (int i = 0; i < 100; i++) {
+      code.append("  String s").append(i).append(";\n");
+      code.append("  java.util.List<String> l").append(i).append(";\n");
+    }
+    code.append("  @A String u;\n");
+    code.append("}\n");
+    Converter converter = new Converter();
+    JavaFileObject unit = source("m/M.java", code.toString());
+    Compilation.compile(null, emptyList(), singletonList(converter), singletonList(unit));
+    Map<String, Type> types = converter.types;
+    assertEquals(201, types.size());
+    assertSame(types.get("s0"), types.get("s99"));
+    assertSame(types.get("l0"), types.get("l99"));
+    assertEquals("java.util.List<String>", types.get("l0").list());
+    assertNotSame(types.get("s0"), types.get("u"));
+    assertEquals("@m.M.A String", types.get("u").list());
+    assertEquals("MirrorCache [size=102, hits=198, misses=3]", converter.cache);
+  }
+}
@@ -0,0 +1,98 @@
+package test.integration.type;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.sormuras.beethoven.Listing;
+import com.github.sormuras.beethoven.Style;
+import com.github.sormuras.beethoven.type.ArrayType;
+import com.github.sormuras.beethoven.type.ClassType;
+import com.github.sormuras.beethoven.type.Type;
+import com.github.sormuras.beethoven.type.TypeVariable;
+import com.github.sormuras.beethoven.type.VoidType;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class TypeParserTests {
+
+  private static String canonical(Type type) {
+    return new Listing(name -> Style.CANONICAL).add(type).toString();
+  }
+
+  @Test
+  void parseMatchesReflectedTypes() {
+    assertEquals(Type.type(int.class), Type.parse("int"));
+    assertEquals(Type.type(long[][].class), Type.parse("long[] []"));
+    assertEquals(Type.type(String.class), Type.parse("java.lang.String"));
+    assertEquals(Type.type(Map.Entry.class), Type.parse("java.util.Map.Entry"));
+    assertEquals(Type.type(Thread.State[].class), Type.parse("java.lang.Thread.State..."));
+    assertEquals(
+        ClassType.parameterized(Map.class, String.class, Integer.class),
+        Type.parse("java.util.Map<java.lang.String, java.lang.Integer>"));
+    assertSame(VoidType.INSTANCE, Type.parse("void"));
+    assertTrue(Type.parse("T") instanceof TypeVariable);
+    assertTrue(Type.parse("T[]") instanceof ArrayType);
+  }
+
+  @Test
+  void parseRendersSource() {
+    String[] sources = {
+      "java.util.List<? extends java.lang.Number>",
+      "java.util.Map<K, ? super V>",
+      "java.util.List<?>[]",
+      "java.util.Map.Entry<java.lang.String, java.util.List<T2>>",
+      "a.Outer<X>.Inner<Y>",
+      "java.lang.@a.B String",
+      "Unnamed<@X T>"
+    };
+    for (String source : sources) {
+      assertEquals(source, canonical(Type.parse(source)));
+    }
+    assertEquals("java.lang.@a.B String", canonical(Type.parse("@a.B java.lang.String")));
+    assertEquals("@a.B int@a.C []@a.D []", canonical(Type.parse("@a.B int @a.C [] @a.D []")));
+    assertEquals("java.util.List<T>", canonical(Type.parse(" java . util . List < T > ")));
+    String wildcard = "java.util.List<@a.B ? extends java.lang.@a.C Object @a.D []>";
+    assertEquals(
+        "java.util.List<@a.B ? extends java.lang.@a.C Object@a.D []>",
+        canonical(Type.parse(wildcard)));
+  }
+
+  @Test
+  void parsedTypesAreCached() {
+    Type type = Type.parse("java.util.Map<java.lang.String, java.util.List<java.lang.Integer>>");
+    assertSame(type, Type.parse(new StringBuilder(type.list(new Listing(n -> Style.CANONICAL)))));
+    assertEquals(List.class.getName(), Type.parse("java.util.List").binary());
+  }
+
+  @Test
+  void parseFailsOnInvalidSource() {
+    assertThrows(IllegalArgumentException.class, () -> Type.parse(""));
+    assertThrows(IllegalArgumentException.class, () -> Type.parse("java.util.List<"));
+    assertThrows(IllegalArgumentException.class, () -> Type.parse("java.util.List<int>"));
+    assertThrows(IllegalArgumentException.class, () -> Type.parse("int]"));
+    assertThrows(IllegalArgumentException.class, () -> Type.parse("@A(1) int"));
+    assertThrows(IllegalArgumentException.class, () -> Type.parse("@A void"));
+  }
+
+  @Test
+  void parseFailsOnKeywordPrefixes() {
+    assertThrows(IllegalArgumentException.class, () -> Type.parse("java.util.List<? extendsX>"));
+    assertThrows(IllegalArgumentException.class, () -> Type.parse("java.util.List<? superX>"));
+    assertThrows(IllegalArgumentException.class, () -> Type.parse("java.util.List<? super_ X>"));
+    assertEquals("java.util.List<? super X>", canonical(Type.parse("java.util.List<?super X>")));
+  }
+
+  @Test
+  void parseAllowsEllipsisOnlyAsFinalTopLevelDimension() {
+    assertEquals("java.lang.String[][]", canonical(Type.parse("java.lang.String[]... ")));
+    assertThrows(IllegalArgumentException.class, () -> Type.parse("java.lang.String...[]"));
+    assertThrows(IllegalArgumentException.class, () -> Type.parse("java.lang.String......"));
+    assertThrows(IllegalArgumentException.class, () -> Type.parse("java.util.List<T...>"));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> Type.parse("java.util.List<? extends java.lang.Number...>"));
+  }
+}
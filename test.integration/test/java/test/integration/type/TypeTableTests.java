@@ -0,0 +1,85 @@
+package test.integration.type;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.sormuras.beethoven.Annotation;
+import com.github.sormuras.beethoven.Name;
+import com.github.sormuras.beethoven.type.ArrayType;
+import com.github.sormuras.beethoven.type.ClassType;
+import com.github.sormuras.beethoven.type.Type;
+import com.github.sormuras.beethoven.type.TypeTable;
+import com.github.sormuras.beethoven.type.TypeVariable;
+import com.github.sormuras.beethoven.type.WildcardType;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class TypeTableTests {
+
+  @Test
+  void canonicalTypesAreShared() {
+    TypeTable table = new TypeTable();
+    ClassType listOfStrings = table.parameterized(List.class, String.class);
+    assertSame(listOfStrings, table.parameterized(List.class, String.class));
+    assertSame(listOfStrings, table.canonical(ClassType.parameterized(List.class, String.class)));
+    assertNotSame(listOfStrings, table.parameterized(List.class, Object.class));
+    // components are canonical as well
+    Type string = Type.type(String.class);
+    ClassType mapOfLists =
+        ClassType.type(Map.class).parameterized(i -> asList(string, listOfStrings));
+    ArrayType array = ArrayType.array(ClassType.parameterized(List.class, String.class), 2);
+    assertSame(listOfStrings, table.canonical(array).getComponentType());
+    ClassType bound = ClassType.parameterized(List.class, String.class);
+    WildcardType wildcard = WildcardType.extend(emptyList(), bound);
+    assertSame(listOfStrings, table.canonical(wildcard).getBoundExtends());
+    ClassType canonicalMap = table.canonical(mapOfLists);
+    assertEquals("java.util.Map<String, java.util.List<String>>", canonicalMap.list());
+    Type argument = canonicalMap.getLastSimple().getTypeArguments().get(1).getArgument();
+    assertSame(listOfStrings, argument);
+    // annotations take part in equality
+    Type annotated = Type.withAnnotations(listOfStrings, singletonList(Annotation.cast("A")));
+    assertNotSame(listOfStrings, table.canonical(annotated));
+    assertSame(table.canonical(annotated), table.canonical(annotated));
+    assertSame(Type.type(int.class), table.type(int.class));
+  }
+
+  @Test
+  void canonicalLeavesGivenTypeUntouched() {
+    TypeTable table = new TypeTable();
+    ClassType own = ClassType.type(Name.name("a", "B"));
+    ClassType canonical = table.canonical(own);
+    assertNotSame(own, canonical);
+    assertEquals(own, canonical);
+    assertTrue(canonical.isShared());
+    assertFalse(own.isShared());
+    own.getTags().put("1", "2");
+    TypeVariable variable = TypeVariable.variable("T");
+    assertNotSame(variable, table.canonical(variable));
+    assertFalse(variable.isShared());
+    ArrayType array = ArrayType.array(int.class, 1);
+    table.canonical(array);
+    assertFalse(array.getDimensions().get(0).isShared());
+  }
+
+  @Test
+  void unreferencedCanonicalTypesAreRemoved() throws Exception {
+    TypeTable table = new TypeTable();
+    ClassType retained = table.parameterized(List.class, String.class);
+    table.parameterized(List.class, Integer.class);
+    // List<String>, List<Integer> and the cached types String and Integer
+    assertEquals(4, table.size());
+    for (int i = 0; i < 50 && table.size() > 3; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    assertEquals(3, table.size());
+    assertSame(retained, table.parameterized(List.class, String.class));
+  }
+}
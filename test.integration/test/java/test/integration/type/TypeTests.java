@@ -5,13 +5,17 @@ import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.DynamicTest.dynamicTest;
 
+import com.github.sormuras.beethoven.Annotation;
 import com.github.sormuras.beethoven.Compilation;
 import com.github.sormuras.beethoven.Listing;
+import com.github.sormuras.beethoven.Name;
 import com.github.sormuras.beethoven.type.ArrayType;
 import com.github.sormuras.beethoven.type.ClassType;
 import com.github.sormuras.beethoven.type.PrimitiveType;
@@ -26,7 +30,11 @@ import com.github.sormuras.beethoven.unit.CompilationUnit;
 import com.github.sormuras.beethoven.unit.MethodDeclaration;
 import java.lang.reflect.AnnotatedType;
 import java.net.URI;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Stream;
 import javax.lang.model.type.NoType;
 import javax.lang.model.type.TypeKind;
@@ -82,6 +90,72 @@ class TypeTests<T> {
     return listing.add(Type.type(type)).toString();
   }
 
+  @Test
+  void equalsAndHashCodeAreStructural() {
+    Annotation tag = Annotation.annotation(Name.name("Tag"));
+    tag.addMember(
+        "value",
+        listing -> {
+          throw new AssertionError("equals() and hashCode() must not render source");
+        });
+    List<Annotation> tags = singletonList(tag);
+    Set<Type> types = new HashSet<>();
+    for (int i = 0; i < 2; i++) {
+      types.add(Type.type(int.class));
+      types.add(Type.withAnnotations(Type.type(int.class), tags));
+      types.add(ClassType.parameterized(List.class, String.class));
+      types.add(ClassType.type(String.class));
+      types.add(Type.withAnnotations(ClassType.type(String.class), tags));
+      types.add(ArrayType.array(String.class, 1));
+      types.add(ArrayType.array(String.class, 2));
+      types.add(TypeVariable.variable("T"));
+      types.add(WildcardType.extend(Number.class));
+      types.add(WildcardType.supertype(Number.class));
+      types.add(VoidType.INSTANCE);
+    }
+    assertEquals(11, types.size());
+    Map<Type, String> map = new HashMap<>();
+    map.put(ClassType.parameterized(List.class, String.class), "strings");
+    assertEquals("strings", map.get(ClassType.parameterized(List.class, String.class)));
+    assertNull(map.get(ClassType.parameterized(List.class, Number.class)));
+  }
+
+  @Test
+  void classTypesAreCached() {
+    assertSame(Type.type(String.class), Type.type(String.class));
+    assertSame(Type.type(Thread.State.class), ClassType.type(Thread.State.class));
+    assertSame(Type.type(int[][].class), Type.type(int[][].class));
+    assertSame(Type.type(long.class), Type.type(long.class));
+    ClassType string = ClassType.type(String.class);
+    ClassType annotated = Type.withAnnotations(string, U.class);
+    assertNotSame(string, annotated);
+    assertTrue(annotated.isAnnotated());
+    assertFalse(ClassType.type(String.class).isAnnotated());
+  }
+
+  @Test
+  void cachedTypesAreShared() {
+    Type string = Type.type(String.class);
+    assertTrue(string.isShared());
+    assertFalse(string.getTag("1").isPresent());
+    assertThrows(UnsupportedOperationException.class, () -> string.getTags().put("1", "2"));
+    ArrayType array = (ArrayType) Type.type(String[][].class);
+    assertTrue(array.getComponentType().isShared());
+    assertTrue(array.getDimensions().get(0).isShared());
+    ClassType list = (ClassType) Type.parse("java.util.List<? extends java.lang.Number>");
+    assertTrue(list.isShared());
+    WildcardType wildcard = list.getLastSimple().getTypeArguments().get(0).getWildcard();
+    assertTrue(wildcard.isShared());
+    assertTrue(wildcard.getBoundExtends().isShared());
+    // new instances are taggable, sharing freezes their tags
+    ClassType created = ClassType.parameterized(List.class, String.class);
+    assertFalse(created.isShared());
+    created.getTags().put("1", "2");
+    created.share();
+    assertEquals("2", created.getTag("1").orElseThrow(AssertionError::new));
+    assertThrows(UnsupportedOperationException.class, () -> created.getTags().put("3", "4"));
+  }
+
   @Test
   void voidType() {
     assertEquals("void", Type.type(void.class).list());
@@ -171,6 +245,29 @@ class TypeTests<T> {
     assertThrows(UnsupportedOperationException.class, () -> WildcardType.wildcard().binary());
   }
 
+  @Test
+  void descriptorAndSignature() {
+    assertEquals("I", Type.type(int.class).descriptor());
+    assertEquals("V", Type.type(void.class).descriptor());
+    assertEquals("Ljava/lang/Thread$State;", Type.type(Thread.State.class).descriptor());
+    assertEquals("[[Ljava/lang/Object;", Type.type(Object[][].class).descriptor());
+    assertEquals("[[Z", Type.type(boolean[][].class).signature());
+    Type entry = Type.parse("java.util.Map.Entry<K, ? super V[]>");
+    assertEquals("Ljava/util/Map$Entry;", entry.descriptor());
+    assertEquals("Ljava/util/Map$Entry<TK;-[TV;>;", entry.signature());
+    Type nested = Type.parse("a.Outer<X>.Inner<? extends java.lang.Number, ?>[]");
+    assertEquals("[La/Outer$Inner;", nested.descriptor());
+    assertEquals("[La/Outer<TX;>.Inner<+Ljava/lang/Number;*>;", nested.signature());
+    assertSame(nested.signature(), nested.signature());
+    Type deep = Type.parse("a.Outer<X>.Inner.Deep");
+    assertEquals("La/Outer$Inner$Deep;", deep.descriptor());
+    assertEquals("La/Outer<TX;>.Inner.Deep;", deep.signature());
+    assertEquals("La/Outer$Inner<TX;>.Deep;", Type.parse("a.Outer.Inner<X>.Deep").signature());
+    Type variable = TypeVariable.variable("T");
+    assertEquals("TT;", variable.signature());
+    assertThrows(UnsupportedOperationException.class, variable::descriptor);
+  }
+
   @Test
   void classType() {
     assertEquals("boolean", Type.type(boolean.class).list());
@@ -0,0 +1,78 @@
+package test.integration.unit;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.sormuras.beethoven.Compilation;
+import com.github.sormuras.beethoven.type.ClassType;
+import com.github.sormuras.beethoven.unit.CompilationBatch;
+import com.github.sormuras.beethoven.unit.CompilationUnit;
+import com.github.sormuras.beethoven.unit.NormalClassDeclaration;
+import java.util.List;
+import javax.lang.model.element.Modifier;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import org.junit.jupiter.api.Test;
+
+class CompilationBatchTests {
+
+  @Test
+  void compileInterdependentUnits() {
+    CompilationUnit a = CompilationUnit.of("a");
+    NormalClassDeclaration classA = a.declareClass("A", Modifier.PUBLIC);
+    NormalClassDeclaration inner = classA.declareClass("Inner", Modifier.PUBLIC, Modifier.STATIC);
+    CompilationUnit b = CompilationUnit.of("b");
+    NormalClassDeclaration classB = b.declareClass("B", Modifier.PUBLIC);
+    classB.setSuperClass(ClassType.type(inner.toName()));
+    CompilationBatch batch = CompilationBatch.compile(asList(a, b));
+    assertEquals(3, batch.getClasses().size());
+    assertEquals("a.A", batch.getClass(classA).getName());
+    assertEquals("a.A$Inner", batch.getClass(inner).getName());
+    assertSame(batch.getClass(inner), batch.getClass(classB).getSuperclass());
+    assertSame(batch.getClassLoader(), batch.getClass(classB).getClassLoader());
+    assertTrue(batch.getDiagnostics(a).isEmpty());
+    assertEquals(2, batch.getResult().getUnitClassCounts().get(a.toURI().toString()));
+    assertFalse(batch.getRenderDuration().isNegative());
+    NormalClassDeclaration foreign = new NormalClassDeclaration();
+    assertThrows(IllegalArgumentException.class, () -> batch.getClass(foreign));
+  }
+
+  @Test
+  void diagnosticsAreAttributedToUnits() {
+    CompilationUnit raw = CompilationUnit.of("r");
+    raw.declareClass("Raw", Modifier.PUBLIC).declareField(List.class, "list");
+    CompilationUnit plain = CompilationUnit.of("p");
+    plain.declareClass("Plain", Modifier.PUBLIC);
+    try (Compilation.Session session = new Compilation.Session()) {
+      List<String> options = singletonList("-Xlint:rawtypes");
+      CompilationBatch batch = CompilationBatch.compile(session, null, options, asList(raw, plain));
+      List<Diagnostic<? extends JavaFileObject>> diagnostics = batch.getDiagnostics(raw);
+      assertEquals(1, diagnostics.size());
+      assertEquals(Diagnostic.Kind.WARNING, diagnostics.get(0).getKind());
+      assertTrue(batch.getDiagnostics(plain).isEmpty());
+      assertEquals(1, session.getCalls());
+    }
+  }
+
+  @Test
+  void failureNamesUnit() {
+    CompilationUnit broken = CompilationUnit.of("x");
+    broken.declareClass("Broken").declareMethod(void.class, "m").addStatement("return 1");
+    CompilationUnit plain = CompilationUnit.of("p");
+    plain.declareClass("Plain");
+    CompilationBatch.Failure e =
+        assertThrows(
+            CompilationBatch.Failure.class, () -> CompilationBatch.compile(asList(broken, plain)));
+    assertTrue(e.getMessage().startsWith("Compilation failed! " + broken.toURI()));
+    assertFalse(e.getMessage().contains(plain.toURI().toString()));
+    assertEquals(1, e.getDiagnostics(broken).size());
+    assertEquals(Diagnostic.Kind.ERROR, e.getDiagnostics(broken).get(0).getKind());
+    assertTrue(e.getDiagnostics(plain).isEmpty());
+    assertTrue(e.getUnattributedDiagnostics().isEmpty());
+  }
+}
@@ -5,6 +5,7 @@ import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -34,6 +35,7 @@ import com.github.sormuras.beethoven.type.TypeVariable;
 import com.github.sormuras.beethoven.type.WildcardType;
 import java.io.IOException;
 import java.io.Serializable;
+import java.io.StringWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -42,6 +44,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.Callable;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import javax.lang.model.element.Modifier;
 import org.junit.jupiter.api.Assertions;
@@ -87,6 +90,44 @@ class CompilationUnitTests {
     assertEquals("Enterprise", spaceship.getClass().getSimpleName());
     assertEquals("NCC-1701", spaceship.get());
     Tests.assertEquals(getClass(), "enterprise", unit);
+    StringWriter writer = new StringWriter();
+    unit.list(writer);
+    assertEquals(unit.list(), writer.toString());
+  }
+
+  @Test
+  void factory() {
+    CompilationUnit unit = voyager();
+    Function<Object[], ?> factory = unit.factory(Supplier.class, String.class);
+    assertEquals("NCC-74656", ((Supplier<?>) factory.apply(new Object[] {"NCC-74656"})).get());
+    assertSame(factory, unit.factory(Supplier.class, String.class));
+    Class<?> type = factory.apply(new Object[] {"a"}).getClass();
+    assertSame(type, factory.apply(new Object[] {"b"}).getClass());
+    assertThrows(IllegalArgumentException.class, () -> factory.apply(new Object[0]));
+    assertThrows(IllegalArgumentException.class, () -> unit.supplier(Supplier.class));
+    assertThrows(ClassCastException.class, () -> unit.factory(Runnable.class, String.class));
+    // other unit rendering the same source shares the compiled class
+    assertSame(factory, voyager().factory(Supplier.class, String.class));
+    // modified unit is compiled again
+    NormalClassDeclaration declaration = (NormalClassDeclaration) unit.getDeclarations().get(0);
+    declaration.declareConstructor().addStatement("this.text = \"?\"");
+    assertEquals("?", unit.supplier(Supplier.class).get().get());
+    assertNotSame(type, unit.supplier(Supplier.class).get().getClass());
+    Function<Object[], ?> modified = unit.factory(Supplier.class, String.class);
+    assertNotSame(factory, modified);
+    assertNotSame(type, modified.apply(new Object[] {"a"}).getClass());
+  }
+
+  private static CompilationUnit voyager() {
+    CompilationUnit unit = CompilationUnit.of("uss");
+    NormalClassDeclaration voyager = unit.declareClass("Voyager", Modifier.PUBLIC);
+    voyager.addInterface(ClassType.parameterized(Supplier.class, String.class));
+    voyager.declareField(String.class, "text").addModifier("private", "final");
+    MethodDeclaration constructor = voyager.declareConstructor();
+    constructor.declareParameter(String.class, "text");
+    constructor.addStatement("this.text = text");
+    voyager.declareMethod(String.class, "get", Modifier.PUBLIC).addStatement("return text");
+    return unit;
   }
 
   @Test
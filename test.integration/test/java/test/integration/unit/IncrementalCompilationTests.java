@@ -0,0 +1,74 @@
+package test.integration.unit;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.sormuras.beethoven.Compilation;
+import com.github.sormuras.beethoven.unit.Block;
+import com.github.sormuras.beethoven.unit.CompilationUnit;
+import com.github.sormuras.beethoven.unit.IncrementalCompilation;
+import com.github.sormuras.beethoven.unit.MethodDeclaration;
+import com.github.sormuras.beethoven.unit.NormalClassDeclaration;
+import java.util.HashSet;
+import java.util.Set;
+import javax.lang.model.element.Modifier;
+import org.junit.jupiter.api.Test;
+
+class IncrementalCompilationTests {
+
+  private static Set<String> uris(CompilationUnit... units) {
+    Set<String> uris = new HashSet<>();
+    for (CompilationUnit unit : units) {
+      uris.add(unit.toURI().toString());
+    }
+    return uris;
+  }
+
+  @Test
+  void recompileChangedAndDependentUnitsOnly() throws Exception {
+    CompilationUnit a = CompilationUnit.of("a");
+    NormalClassDeclaration classA = a.declareClass("A", Modifier.PUBLIC);
+    MethodDeclaration value = classA.declareMethod(int.class, "value", Modifier.PUBLIC);
+    value.addStatement("return 1");
+    CompilationUnit b = CompilationUnit.of("b");
+    b.declareClass("B", Modifier.PUBLIC).setSuperClass(classA.toType());
+    CompilationUnit c = CompilationUnit.of("c");
+    MethodDeclaration other = c.declareClass("C", Modifier.PUBLIC).declareMethod(int.class, "x");
+    other.addStatement("return 3");
+    try (Compilation.Session session = new Compilation.Session()) {
+      IncrementalCompilation compilation = new IncrementalCompilation(session);
+      ClassLoader loader = compilation.compile(null, asList(a, b, c));
+      assertEquals(uris(a, b, c), compilation.getLastRecompiled());
+      Object instance = loader.loadClass("b.B").getConstructor().newInstance();
+      assertEquals(1, instance.getClass().getMethod("value").invoke(instance));
+      assertSame(loader.loadClass("a.A"), instance.getClass().getSuperclass());
+      // unchanged
+      ClassLoader unchanged = compilation.compile(null, asList(a, b, c));
+      assertTrue(compilation.getLastRecompiled().isEmpty());
+      assertEquals("c.C", unchanged.loadClass("c.C").getName());
+      assertEquals(1, session.getCalls());
+      // change independent unit
+      other.setBody(new Block().add("return 4;"));
+      compilation.compile(null, asList(a, b, c));
+      assertEquals(uris(c), compilation.getLastRecompiled());
+      // change dependent unit only, compiled against cached class bytes of a.A
+      b.getDeclarations().get(0).declareMethod(int.class, "twice").addStatement("return 2");
+      compilation.compile(null, asList(a, b, c));
+      assertEquals(uris(b), compilation.getLastRecompiled());
+      // change unit others depend on
+      value.setBody(new Block().add("return 5;"));
+      loader = compilation.compile(null, asList(a, b, c));
+      assertEquals(uris(a, b), compilation.getLastRecompiled());
+      instance = loader.loadClass("b.B").getConstructor().newInstance();
+      assertEquals(5, instance.getClass().getMethod("value").invoke(instance));
+      // remove unit
+      ClassLoader removed = compilation.compile(null, asList(a, b));
+      assertTrue(compilation.getLastRecompiled().isEmpty());
+      assertThrows(ClassNotFoundException.class, () -> removed.loadClass("c.C"));
+      assertEquals(4, session.getCalls());
+    }
+  }
+}